@@ -0,0 +1,96 @@
+package com.microservices.gateway.cache;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Holds back a response body until it is complete so it can be kept, as long as it stays
+ * within a byte limit. A body that grows past the limit, chunked or not, is released to the
+ * client as it is and the rest streams through, so only the bytes up to the limit are ever
+ * held in memory.
+ *
+ * <p>Nothing is written before the body completes or overflows, so the response headers can
+ * still be changed from either callback.
+ */
+public final class BoundedBodyCapture {
+
+    private final int maxBytes;
+    private final DataBufferFactory bufferFactory;
+    private final Consumer<byte[]> onComplete;
+    private final Runnable onOverflow;
+
+    private List<DataBuffer> held = new ArrayList<>();
+    private long heldBytes;
+
+    private BoundedBodyCapture(int maxBytes, DataBufferFactory bufferFactory,
+                               Consumer<byte[]> onComplete, Runnable onOverflow) {
+        this.maxBytes = maxBytes;
+        this.bufferFactory = bufferFactory;
+        this.onComplete = onComplete;
+        this.onOverflow = onOverflow;
+    }
+
+    /**
+     * Returns the body to write in place of {@code body}. {@code onComplete} receives the whole
+     * body if it fits in {@code maxBytes}; otherwise {@code onOverflow} runs once the limit is
+     * crossed and the body is passed through unchanged.
+     */
+    public static Flux<DataBuffer> capture(Publisher<? extends DataBuffer> body, int maxBytes,
+                                           DataBufferFactory bufferFactory,
+                                           Consumer<byte[]> onComplete, Runnable onOverflow) {
+        return Flux.defer(() -> {
+            BoundedBodyCapture capture = new BoundedBodyCapture(maxBytes, bufferFactory, onComplete, onOverflow);
+            return Flux.<DataBuffer>from(body)
+                .concatMapIterable(capture::next)
+                .concatWith(Flux.defer(capture::complete))
+                .doFinally(signal -> capture.releaseHeld());
+        });
+    }
+
+    private List<DataBuffer> next(DataBuffer buffer) {
+        if (held == null) {
+            return List.of(buffer);
+        }
+        held.add(buffer);
+        heldBytes += buffer.readableByteCount();
+        if (heldBytes <= maxBytes) {
+            return List.of();
+        }
+        List<DataBuffer> release = held;
+        held = null;
+        onOverflow.run();
+        return release;
+    }
+
+    private Flux<DataBuffer> complete() {
+        if (held == null) {
+            return Flux.empty();
+        }
+        byte[] bytes = new byte[(int) heldBytes];
+        int offset = 0;
+        for (DataBuffer buffer : held) {
+            int length = buffer.readableByteCount();
+            buffer.read(bytes, offset, length);
+            offset += length;
+            DataBufferUtils.release(buffer);
+        }
+        held = null;
+        onComplete.accept(bytes);
+        return Flux.just(bufferFactory.wrap(bytes));
+    }
+
+    // Buffers still held when the upstream fails or the client goes away
+    private void releaseHeld() {
+        if (held != null) {
+            held.forEach(DataBufferUtils::release);
+            held = null;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.microservices.gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A complete upstream response held in gateway memory so it can be replayed to other clients,
+ * by {@link com.microservices.gateway.filter.ResponseCacheFilter} and
+ * {@link com.microservices.gateway.filter.RequestCoalescingFilter}. The body is shared between
+ * all replays and must not be modified.
+ */
+public record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, String etag, Duration ttl) {
+
+    // Headers that describe the original connection or a single client and must not be replayed
+    private static final List<String> UNSHARED_HEADERS = List.of(
+        HttpHeaders.CONNECTION, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.DATE, HttpHeaders.SET_COOKIE,
+        "X-Cache", "X-Coalesced");
+
+    // Per-client quota headers set by RateLimitFilter for whoever made the original request
+    private static final String RATE_LIMIT_HEADER_PREFIX = "x-ratelimit-";
+
+    public CachedResponse {
+        headers = HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    /**
+     * Captures a response, dropping headers that must not be replayed to other clients.
+     */
+    public static CachedResponse of(HttpStatusCode status, HttpHeaders headers, byte[] body, String etag, Duration ttl) {
+        HttpHeaders shared = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (UNSHARED_HEADERS.stream().noneMatch(name::equalsIgnoreCase)
+                && !name.toLowerCase(Locale.ROOT).startsWith(RATE_LIMIT_HEADER_PREFIX)) {
+                shared.put(name, values);
+            }
+        });
+        return new CachedResponse(status, shared, body, etag, ttl);
+    }
+
+    /**
+     * The request's content negotiation headers, normalised, for the key a response is shared
+     * under: an upstream may answer the same URL with a different encoding or media type for each.
+     */
+    public static String negotiationKey(HttpHeaders requestHeaders) {
+        return " " + normalise(requestHeaders.getFirst(HttpHeaders.ACCEPT_ENCODING))
+            + " " + normalise(requestHeaders.getFirst(HttpHeaders.ACCEPT));
+    }
+
+    private static String normalise(String headerValue) {
+        return headerValue != null ? headerValue.replace(" ", "").toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * Writes status, headers and body to a client response without copying the body.
+     */
+    public Mono<Void> writeTo(ServerHttpResponse response) {
+        response.setStatusCode(status);
+        response.getHeaders().putAll(headers);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    /**
+     * Weak comparison as used by If-None-Match: a W/ prefix is ignored and "*" matches anything.
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || stripWeak(value).equals(stripWeak(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
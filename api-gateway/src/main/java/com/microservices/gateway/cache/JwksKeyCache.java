@@ -0,0 +1,158 @@
+package com.microservices.gateway.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory copy of auth-service's JSON Web Key Set, refreshed in the background. Lookups by
+ * {@code kid} never leave the process; an unknown {@code kid} triggers an early, rate-limited
+ * refresh, but the token that carried it is still rejected. Auth-service therefore publishes a
+ * new key for at least one refresh interval before signing with it.
+ */
+@Component
+public class JwksKeyCache {
+
+    private static final Logger log = LoggerFactory.getLogger(JwksKeyCache.class);
+
+    private final WebClient webClient;
+    private final String jwksUri;
+    private final Duration refreshInterval;
+    private final Duration minRefreshInterval;
+    private final Counter refreshSuccesses;
+    private final Counter refreshFailures;
+    private final AtomicLong lastOnDemandRefresh = new AtomicLong();
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private Disposable refresher;
+
+    public JwksKeyCache(WebClient.Builder webClientBuilder, MeterRegistry meterRegistry,
+                        @Value("${gateway.jwt.jwks.uri:}") String jwksUri,
+                        @Value("${gateway.jwt.jwks.refresh-interval:5m}") Duration refreshInterval,
+                        @Value("${gateway.jwt.jwks.min-refresh-interval:30s}") Duration minRefreshInterval) {
+        this.webClient = webClientBuilder.build();
+        this.jwksUri = jwksUri;
+        this.refreshInterval = refreshInterval;
+        this.minRefreshInterval = minRefreshInterval;
+
+        Gauge.builder("gateway.jwt.jwks.keys", this, cache -> cache.keys.size())
+            .description("Verification keys currently loaded from the JWKS")
+            .register(meterRegistry);
+        this.refreshSuccesses = Counter.builder("gateway.jwt.jwks.refreshes")
+            .description("JWKS refresh attempts")
+            .tag("outcome", "success")
+            .register(meterRegistry);
+        this.refreshFailures = Counter.builder("gateway.jwt.jwks.refreshes")
+            .description("JWKS refresh attempts")
+            .tag("outcome", "failure")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (jwksUri.isBlank()) {
+            log.info("gateway.jwt.jwks.uri not set; only HS256 tokens can be verified");
+            return;
+        }
+        refresher = Flux.interval(Duration.ZERO, refreshInterval)
+            .onBackpressureDrop()
+            .concatMap(tick -> refresh())
+            .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (refresher != null) {
+            refresher.dispose();
+        }
+    }
+
+    /**
+     * Verification key for {@code kid}, or null if it is not (yet) published.
+     */
+    public PublicKey get(String kid) {
+        PublicKey key = keys.get(kid);
+        if (key == null && !jwksUri.isBlank()) {
+            long now = System.nanoTime();
+            long last = lastOnDemandRefresh.get();
+            if (now - last >= minRefreshInterval.toNanos() && lastOnDemandRefresh.compareAndSet(last, now)) {
+                refresh().subscribe();
+            }
+        }
+        return key;
+    }
+
+    private Mono<Void> refresh() {
+        return webClient.get()
+            .uri(jwksUri)
+            .retrieve()
+            .bodyToMono(JsonNode.class)
+            .timeout(Duration.ofSeconds(5))
+            .map(JwksKeyCache::parse)
+            .doOnNext(loaded -> {
+                if (!loaded.keySet().equals(keys.keySet())) {
+                    log.info("Loaded JWKS verification keys {}", loaded.keySet());
+                }
+                keys = loaded;
+                refreshSuccesses.increment();
+            })
+            .then()
+            .onErrorResume(e -> {
+                // Keep verifying with the keys we have
+                refreshFailures.increment();
+                log.warn("JWKS refresh from {} failed: {}", jwksUri, e.toString());
+                return Mono.empty();
+            });
+    }
+
+    static Map<String, PublicKey> parse(JsonNode jwks) {
+        Map<String, PublicKey> parsed = new HashMap<>();
+        for (JsonNode jwk : jwks.path("keys")) {
+            String kid = jwk.path("kid").asText(null);
+            if (kid == null || !"EC".equals(jwk.path("kty").asText()) || !"P-256".equals(jwk.path("crv").asText())) {
+                continue;
+            }
+            try {
+                parsed.put(kid, ecPublicKey(jwk.path("x").asText(), jwk.path("y").asText()));
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                log.warn("Skipping invalid JWK {}: {}", kid, e.toString());
+            }
+        }
+        return Map.copyOf(parsed);
+    }
+
+    private static PublicKey ecPublicKey(String x, String y) throws GeneralSecurityException {
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+        ECPoint point = new ECPoint(new BigInteger(1, decoder.decode(x)), new BigInteger(1, decoder.decode(y)));
+        AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+        parameters.init(new ECGenParameterSpec("secp256r1"));
+        ECParameterSpec spec = parameters.getParameterSpec(ECParameterSpec.class);
+        return KeyFactory.getInstance("EC").generatePublic(new ECPublicKeySpec(point, spec));
+    }
+}
@@ -0,0 +1,100 @@
+package com.microservices.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.microservices.gateway.util.JwtPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Bounded cache of already verified tokens so repeat requests skip signature verification
+ * and claim parsing. Entries are keyed by a SHA-256 digest of the token (the raw token is
+ * never held as a key) and never outlive the token's own {@code exp} claim.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${gateway.jwt.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${gateway.jwt.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${gateway.jwt.cache.max-ttl:5m}")
+    private Duration maxTtl;
+
+    private Cache<String, JwtPrincipal> cache;
+
+    @PostConstruct
+    void init() {
+        // Caffeine evicts with W-TinyLFU once maxSize is reached
+        cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new TokenExpiry())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt-verified-tokens");
+    }
+
+    public JwtPrincipal getIfPresent(String token) {
+        return enabled ? cache.getIfPresent(digest(token)) : null;
+    }
+
+    public void put(String token, JwtPrincipal principal) {
+        if (enabled) {
+            cache.put(digest(token), principal);
+        }
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    private class TokenExpiry implements Expiry<String, JwtPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String key, JwtPrincipal principal, long currentTime) {
+            long ttl = maxTtl.toNanos();
+            Instant expiresAt = principal.expiresAt();
+            if (expiresAt != null) {
+                long untilExpiry = Duration.between(Instant.now(), expiresAt).toNanos();
+                ttl = Math.min(ttl, Math.max(untilExpiry, 0));
+            }
+            return ttl;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, JwtPrincipal principal, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, principal, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, JwtPrincipal principal, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.microservices.gateway.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive in-flight limit for one downstream, in the style of TCP Vegas: the limit grows
+ * while round-trip times stay near the no-load baseline and shrinks once they rise, i.e. once
+ * requests start queueing in the downstream. Errors and timeouts cut the limit multiplicatively
+ * (the AIMD backoff), so a failing service is shed quickly.
+ *
+ * <p>Acquiring is a single CAS. Samples are aggregated per window and the limit is recomputed
+ * once per window, so the lock is only taken briefly per completed request.
+ */
+public class VegasConcurrencyLimiter {
+
+    // Re-learn the no-load RTT every this many windows, in case the baseline moved up for good
+    private static final int PROBE_INTERVAL_WINDOWS = 100;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long windowNanos;
+    private final int minWindowSamples;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // Window state, guarded by this
+    private long windowStart = System.nanoTime();
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+    private long rttNoLoad;
+    private int windowsSinceProbe;
+
+    public VegasConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                                   long windowNanos, int minWindowSamples) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.windowNanos = windowNanos;
+        this.minWindowSamples = minWindowSamples;
+        this.limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+    }
+
+    /**
+     * Takes an in-flight slot, or returns -1 when the limit is reached. The returned value is the
+     * in-flight count including this request and must be passed back to {@link #onSample} or
+     * {@link #onIgnore}.
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Releases the slot without teaching the limiter anything, e.g. for cancelled requests or
+     * responses that never reached the downstream.
+     */
+    public void onIgnore() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Releases the slot and records how long the downstream took to respond.
+     *
+     * @param dropped whether the call failed in a way that signals overload (5xx, timeout, error)
+     */
+    public void onSample(long rttNanos, int inFlightAtStart, boolean dropped) {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            windowDropped |= dropped;
+            if (!dropped) {
+                windowRttSum += rttNanos;
+                windowSamples++;
+            }
+            windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtStart);
+
+            long now = System.nanoTime();
+            if (now - windowStart < windowNanos || (windowSamples < minWindowSamples && !windowDropped)) {
+                return;
+            }
+            limit = nextLimit();
+            windowStart = now;
+            windowRttSum = 0;
+            windowSamples = 0;
+            windowMaxInFlight = 0;
+            windowDropped = false;
+        }
+    }
+
+    private int nextLimit() {
+        int current = limit;
+        if (windowDropped) {
+            return Math.max(minLimit, (int) (current * backoffRatio));
+        }
+
+        long rtt = windowRttSum / windowSamples;
+        if (rttNoLoad == 0 || rtt < rttNoLoad || ++windowsSinceProbe >= PROBE_INTERVAL_WINDOWS) {
+            rttNoLoad = rtt;
+            windowsSinceProbe = 0;
+            return current;
+        }
+
+        // Not enough traffic to tell whether more concurrency would help
+        if (windowMaxInFlight * 2 < current) {
+            return current;
+        }
+
+        // Estimated number of requests queued in the downstream rather than being served
+        double log = Math.max(1, Math.log10(current));
+        double queued = current * (1 - (double) rttNoLoad / rtt);
+        double next = current;
+        if (queued <= log) {
+            next = current + 6 * log;
+        } else if (queued < 3 * log) {
+            next = current + log;
+        } else if (queued > 6 * log) {
+            next = current - log;
+        }
+        return (int) Math.max(minLimit, Math.min(maxLimit, Math.round(next)));
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,59 @@
+package com.microservices.gateway.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated, bounded scheduler for JWT signature verification so cache misses do not run
+ * HMAC and claim parsing on the reactor-netty event loops. When the queue is full, tasks are
+ * rejected instead of piling up, and the filter answers with 503.
+ */
+@Configuration
+public class JwtVerificationSchedulerConfig {
+
+    @Value("${gateway.jwt.verification.parallelism:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int parallelism;
+
+    @Value("${gateway.jwt.verification.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jwtVerificationScheduler(MeterRegistry meterRegistry) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            parallelism, parallelism,
+            60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            daemonThreadFactory("jwt-verify-"),
+            new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+
+        Gauge.builder("gateway.jwt.verification.queue.depth", executor, e -> e.getQueue().size())
+            .description("JWT verifications waiting for a worker thread")
+            .register(meterRegistry);
+        Gauge.builder("gateway.jwt.verification.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("JWT verifications currently running")
+            .register(meterRegistry);
+
+        return Schedulers.fromExecutorService(executor, "jwt-verify");
+    }
+
+    private static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
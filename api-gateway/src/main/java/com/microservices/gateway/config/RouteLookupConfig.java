@@ -0,0 +1,32 @@
+package com.microservices.gateway.config;
+
+import com.microservices.gateway.route.TrieRoutePredicateHandlerMapping;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Replaces Spring Cloud Gateway's sequential route lookup with the path-trie lookup. The
+ * auto-configured mapping backs off when this bean exists; set
+ * {@code gateway.routing.trie.enabled=false} to go back to it.
+ */
+@Configuration
+@ConditionalOnProperty(name = "gateway.routing.trie.enabled", havingValue = "true", matchIfMissing = true)
+public class RouteLookupConfig {
+
+    @Bean
+    public RoutePredicateHandlerMapping routePredicateHandlerMapping(FilteringWebHandler webHandler,
+                                                                     RouteLocator routeLocator,
+                                                                     RouteDefinitionLocator routeDefinitionLocator,
+                                                                     GlobalCorsProperties globalCorsProperties,
+                                                                     Environment environment) {
+        return new TrieRoutePredicateHandlerMapping(webHandler, routeLocator, routeDefinitionLocator,
+            globalCorsProperties, environment);
+    }
+}
@@ -0,0 +1,71 @@
+package com.microservices.gateway.config;
+
+import com.microservices.gateway.revocation.TokenRevocationEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Consumer for the token revocation topic. Each replica must see every revocation, so each
+ * one joins its own consumer group and replays the topic from the beginning on startup; the
+ * topic only retains revocations for as long as an access token lives. Offsets are never
+ * committed, so the per-instance groups leave nothing behind.
+ */
+@Configuration
+@EnableKafka
+@ConditionalOnProperty(name = "gateway.revocation.enabled", havingValue = "true", matchIfMissing = true)
+public class TokenRevocationKafkaConfig {
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Bean
+    public ConsumerFactory<String, TokenRevocationEvent> revocationConsumerFactory(MeterRegistry meterRegistry) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "api-gateway-revocations-" + UUID.randomUUID());
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+        // A malformed record is logged and skipped instead of blocking the partition
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        configProps.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+        configProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE, TokenRevocationEvent.class.getName());
+        configProps.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+
+        DefaultKafkaConsumerFactory<String, TokenRevocationEvent> factory = new DefaultKafkaConsumerFactory<>(configProps);
+        // Publishes kafka.consumer.* meters, including records-lag-max for the revocation feed
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, TokenRevocationEvent> revocationListenerContainerFactory(
+            ConsumerFactory<String, TokenRevocationEvent> revocationConsumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, TokenRevocationEvent> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(revocationConsumerFactory);
+        // One consumer thread: TokenRevocationList is written from a single thread
+        factory.setConcurrency(1);
+        // Nothing is acknowledged, so no offsets are committed for the throwaway group
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+}
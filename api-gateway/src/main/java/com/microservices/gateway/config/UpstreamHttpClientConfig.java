@@ -0,0 +1,80 @@
+package com.microservices.gateway.config;
+
+import com.microservices.gateway.filter.UpstreamTimingFilter;
+import com.microservices.gateway.metrics.RouteMetrics;
+import com.microservices.gateway.upstream.UpstreamHttpClientFactory;
+import com.microservices.gateway.upstream.UpstreamProperties;
+import com.microservices.gateway.upstream.UpstreamRoutingFilter;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Upstream client layer: per-downstream connection pools, optional h2c and pool acquisition
+ * timing. Pool gauges come from reactor-netty when
+ * {@code spring.cloud.gateway.httpclient.pool.metrics} is enabled.
+ */
+@Configuration
+@EnableConfigurationProperties(UpstreamProperties.class)
+public class UpstreamHttpClientConfig {
+
+    // Bean name of the NettyRoutingFilter in Spring Cloud Gateway's auto-configuration
+    private static final String ROUTING_FILTER_BEAN = "routingFilter";
+
+    // Replaces the auto-configured factory, which backs off when one is defined
+    @Bean
+    public HttpClientFactory gatewayHttpClientFactory(HttpClientProperties properties, ServerProperties serverProperties,
+                                                      HttpClientSslConfigurer sslConfigurer,
+                                                      List<HttpClientCustomizer> customizers,
+                                                      UpstreamProperties upstreamProperties) {
+        return new UpstreamHttpClientFactory(properties, serverProperties, sslConfigurer, customizers, upstreamProperties);
+    }
+
+    @Bean
+    public HttpClientCustomizer upstreamAcquireTimingCustomizer(RouteMetrics routeMetrics) {
+        // doOnRequest fires once a connection has been acquired (and connected, if new)
+        return httpClient -> httpClient.doOnRequest((request, connection) -> {
+            Long start = request.currentContextView().getOrDefault(UpstreamTimingFilter.START_NANOS_CONTEXT_KEY, null);
+            String routeId = request.currentContextView().getOrDefault(UpstreamTimingFilter.ROUTE_CONTEXT_KEY, null);
+            if (start != null && routeId != null) {
+                routeMetrics.recordUpstreamAcquire(routeId, System.nanoTime() - start);
+            }
+        });
+    }
+
+    /**
+     * The auto-configured {@link NettyRoutingFilter} is not conditional, so its definition is
+     * replaced with {@link UpstreamRoutingFilter}, autowired through the same constructor arguments.
+     */
+    @Bean
+    public static BeanDefinitionRegistryPostProcessor upstreamRoutingFilterRegistrar() {
+        return new BeanDefinitionRegistryPostProcessor() {
+            @Override
+            public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) {
+                if (registry.containsBeanDefinition(ROUTING_FILTER_BEAN)) {
+                    registry.removeBeanDefinition(ROUTING_FILTER_BEAN);
+                    RootBeanDefinition definition = new RootBeanDefinition(UpstreamRoutingFilter.class);
+                    definition.setAutowireMode(AbstractBeanDefinition.AUTOWIRE_CONSTRUCTOR);
+                    registry.registerBeanDefinition(ROUTING_FILTER_BEAN, definition);
+                }
+            }
+
+            @Override
+            public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+            }
+        };
+    }
+}
@@ -0,0 +1,202 @@
+package com.microservices.gateway.filter;
+
+import com.microservices.gateway.concurrency.VegasConcurrencyLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Limits requests in flight to a downstream with a limit that adapts to its measured latency
+ * (see {@link VegasConcurrencyLimiter}), so a service that slows down is shed early instead of
+ * letting queues and latency grow. Requests over the limit are answered at once with 503 and
+ * {@code Retry-After}. Routes to the same service share one limiter by using the same {@code name}.
+ *
+ * <p>Must be listed before {@link ResilienceFilter}, so its rejections are not counted as
+ * breaker failures. Only calls that reached the downstream are sampled; cache hits, coalesced
+ * responses and breaker rejections release their slot without affecting the limit.
+ */
+@Component
+public class AdaptiveConcurrencyFilter extends AbstractGatewayFilterFactory<AdaptiveConcurrencyFilter.Config> {
+
+    private static final byte[] LIMITED_BODY =
+        "{\"error\":\"Service temporarily unavailable\",\"reason\":\"concurrency_limited\",\"status\":503}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, VegasConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> shedCounters = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyFilter(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return Arrays.asList("name");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // The first route to register a name defines its settings; later routes share the limiter
+        VegasConcurrencyLimiter limiter = limiters.computeIfAbsent(config.getName(), name -> createLimiter(name, config));
+        Counter shed = shedCounters.get(config.getName());
+        String retryAfter = Long.toString(Math.max(1, config.getRetryAfter().toSeconds()));
+
+        return (exchange, chain) -> {
+            int inFlightAtStart = limiter.tryAcquire();
+            if (inFlightAtStart < 0) {
+                shed.increment();
+                return reject(exchange, retryAfter);
+            }
+
+            return chain.filter(exchange)
+                .doOnSuccess(v -> {
+                    Long upstreamNanos = exchange.getAttribute(UpstreamTimingFilter.UPSTREAM_NANOS_ATTRIBUTE);
+                    if (upstreamNanos == null) {
+                        limiter.onIgnore();
+                        return;
+                    }
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    limiter.onSample(upstreamNanos, inFlightAtStart, status != null && status.is5xxServerError());
+                })
+                .doOnError(e -> {
+                    Long upstreamNanos = exchange.getAttribute(UpstreamTimingFilter.UPSTREAM_NANOS_ATTRIBUTE);
+                    if (upstreamNanos == null
+                        || (e instanceof ResponseStatusException rse && rse.getStatusCode().is4xxClientError())) {
+                        limiter.onIgnore();
+                    } else {
+                        // Connect failures and response timeouts are the clearest overload signal
+                        limiter.onSample(upstreamNanos, inFlightAtStart, true);
+                    }
+                })
+                .doOnCancel(limiter::onIgnore);
+        };
+    }
+
+    private VegasConcurrencyLimiter createLimiter(String name, Config config) {
+        VegasConcurrencyLimiter limiter = new VegasConcurrencyLimiter(
+            config.getInitialLimit(), config.getMinLimit(), config.getMaxLimit(), config.getBackoffRatio(),
+            config.getWindow().toNanos(), config.getMinWindowSamples());
+
+        Gauge.builder("gateway.concurrency.limit", limiter, VegasConcurrencyLimiter::getLimit)
+            .description("Current adaptive in-flight limit for the downstream")
+            .tag("name", name)
+            .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.in.flight", limiter, VegasConcurrencyLimiter::getInFlight)
+            .description("Requests in flight counted against the adaptive limit")
+            .tag("name", name)
+            .register(meterRegistry);
+        shedCounters.put(name, Counter.builder("gateway.concurrency.shed")
+            .description("Requests rejected because the adaptive limit was reached")
+            .tag("name", name)
+            .register(meterRegistry));
+        return limiter;
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, String retryAfter) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(LIMITED_BODY.length);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfter);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(LIMITED_BODY)));
+    }
+
+    public static class Config {
+        // Downstream service name; routes with the same name share one limiter
+        private String name;
+        private int initialLimit = 20;
+        private int minLimit = 5;
+        // Hard ceiling; keep it at or below the ResilienceFilter bulkhead for the same service
+        private int maxLimit = 100;
+        // Limit is multiplied by this after a window with 5xx responses, timeouts or connect errors
+        private double backoffRatio = 0.9;
+        // The limit is recomputed at most once per window
+        private Duration window = Duration.ofMillis(500);
+        private int minWindowSamples = 10;
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public int getMinWindowSamples() {
+            return minWindowSamples;
+        }
+
+        public void setMinWindowSamples(int minWindowSamples) {
+            this.minWindowSamples = minWindowSamples;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.microservices.gateway.filter;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Reasons the gateway rejects a request before routing it. Each response body is encoded
+ * once at class load so rejections neither format strings nor echo exception messages.
+ */
+public enum AuthRejection {
+
+    MISSING_HEADER("missing_header", "Missing or invalid Authorization header", HttpStatus.UNAUTHORIZED),
+    BAD_SIGNATURE("bad_signature", "Invalid JWT signature", HttpStatus.UNAUTHORIZED),
+    EXPIRED("expired", "JWT token has expired", HttpStatus.UNAUTHORIZED),
+    MALFORMED("malformed", "Malformed JWT token", HttpStatus.UNAUTHORIZED),
+    REVOKED("revoked", "JWT token has been revoked", HttpStatus.UNAUTHORIZED),
+    OVERLOADED("overloaded", "Authentication temporarily unavailable", HttpStatus.SERVICE_UNAVAILABLE);
+
+    private final String reason;
+    private final HttpStatus status;
+    private final byte[] body;
+
+    AuthRejection(String reason, String message, HttpStatus status) {
+        this.reason = reason;
+        this.status = status;
+        this.body = String.format("{\"error\":\"%s\",\"reason\":\"%s\",\"status\":%d}", message, reason, status.value())
+            .getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static AuthRejection from(Throwable e) {
+        if (e instanceof ExpiredJwtException) {
+            return EXPIRED;
+        }
+        if (e instanceof SignatureException) {
+            return BAD_SIGNATURE;
+        }
+        if (e instanceof RejectedExecutionException) {
+            return OVERLOADED;
+        }
+        return MALFORMED;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Shared pre-encoded body; callers wrap it without copying and must not modify it.
+     */
+    byte[] getBody() {
+        return body;
+    }
+}
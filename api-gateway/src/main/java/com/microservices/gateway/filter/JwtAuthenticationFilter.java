@@ -1,27 +1,69 @@
 package com.microservices.gateway.filter;
 
+import com.microservices.gateway.cache.VerifiedTokenCache;
+import com.microservices.gateway.metrics.RouteMetrics;
+import com.microservices.gateway.revocation.TokenRevocationList;
+import com.microservices.gateway.util.IdentityHeaderEncoder;
+import com.microservices.gateway.util.JwtPrincipal;
 import com.microservices.gateway.util.JwtUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
-import java.util.List;
+import java.util.EnumMap;
+import java.util.Map;
 
 @Component
 public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<JwtAuthenticationFilter.Config> {
 
+    // Exchange attribute holding the verified JwtPrincipal for filters that run after this one
+    public static final String PRINCIPAL_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".principal";
+
     @Autowired
     private JwtUtil jwtUtil;
 
-    public JwtAuthenticationFilter() {
+    @Autowired
+    private IdentityHeaderEncoder identityHeaderEncoder;
+
+    @Autowired
+    private VerifiedTokenCache tokenCache;
+
+    @Autowired
+    private TokenRevocationList revocationList;
+
+    @Autowired
+    private RouteMetrics routeMetrics;
+
+    @Autowired
+    @Qualifier("jwtVerificationScheduler")
+    private Scheduler verificationScheduler;
+
+    @Value("${gateway.jwt.verification.offload:false}")
+    private boolean offloadVerification;
+
+    private final Map<AuthRejection, Counter> rejectionCounters = new EnumMap<>(AuthRejection.class);
+
+    public JwtAuthenticationFilter(MeterRegistry meterRegistry) {
         super(Config.class);
+        for (AuthRejection rejection : AuthRejection.values()) {
+            rejectionCounters.put(rejection, Counter.builder("gateway.jwt.rejections")
+                .description("Requests rejected by JwtAuthenticationFilter")
+                .tag("reason", rejection.getReason())
+                .register(meterRegistry));
+        }
     }
 
     @Override
@@ -33,46 +75,64 @@ public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<JwtAut
             String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
             
             if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                return onError(exchange, "Missing or invalid Authorization header", HttpStatus.UNAUTHORIZED);
+                return onError(exchange, AuthRejection.MISSING_HEADER);
             }
             
             String token = authHeader.substring(7);
             
-            try {
-                // Validate token
-                if (!jwtUtil.validateToken(token)) {
-                    return onError(exchange, "Invalid JWT token", HttpStatus.UNAUTHORIZED);
-                }
-                
-                // Extract user information
-                String username = jwtUtil.getUsernameFromToken(token);
-                Long userId = jwtUtil.getUserIdFromToken(token);
-                List<String> roles = jwtUtil.getRolesFromToken(token);
-                String email = jwtUtil.getEmailFromToken(token);
-                
-                // Add user information to headers for downstream services
-                ServerHttpRequest modifiedRequest = request.mutate()
-                    .header("X-User-Id", userId != null ? userId.toString() : "")
-                    .header("X-Username", username != null ? username : "")
-                    .header("X-User-Email", email != null ? email : "")
-                    .header("X-User-Roles", roles != null ? String.join(",", roles) : "")
-                    .build();
-                
-                return chain.filter(exchange.mutate().request(modifiedRequest).build());
-                
-            } catch (Exception e) {
-                return onError(exchange, "JWT processing error: " + e.getMessage(), HttpStatus.UNAUTHORIZED);
-            }
+            return resolvePrincipal(token)
+                .onErrorResume(e -> onError(exchange, AuthRejection.from(e)).then(Mono.empty()))
+                .flatMap(principal -> {
+                    // Checked on cache hits too, so a revocation takes effect on the next request
+                    if (revocationList.isRevoked(principal)) {
+                        return onError(exchange, AuthRejection.REVOKED);
+                    }
+                    
+                    exchange.getAttributes().put(PRINCIPAL_ATTRIBUTE, principal);
+                    
+                    // Pass the user to downstream services as one signed header
+                    ServerHttpRequest modifiedRequest = request.mutate()
+                        .header(IdentityHeaderEncoder.HEADER, identityHeaderEncoder.encode(principal))
+                        .build();
+                    
+                    return chain.filter(exchange.mutate().request(modifiedRequest).build());
+                });
         };
     }
 
-    private Mono<Void> onError(ServerWebExchange exchange, String error, HttpStatus httpStatus) {
+    /**
+     * Cache hits are answered inline. Misses are verified either inline or, when offloading is
+     * enabled, on the bounded verification scheduler so the event loop only does I/O. Only the
+     * verification runs there: the rest of the filter chain (routing, response handling) is
+     * handed to the parallel scheduler, so the small jwt-verify pool is never held by
+     * downstream work and its queue only measures verifications.
+     */
+    private Mono<JwtPrincipal> resolvePrincipal(String token) {
+        JwtPrincipal cached = tokenCache.getIfPresent(token);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        
+        Mono<JwtPrincipal> verification = Mono.fromCallable(() -> {
+            JwtPrincipal principal = routeMetrics.jwtVerificationTimer().recordCallable(() -> jwtUtil.verify(token));
+            tokenCache.put(token, principal);
+            return principal;
+        });
+        return offloadVerification
+            ? verification.subscribeOn(verificationScheduler).publishOn(Schedulers.parallel())
+            : verification;
+    }
+
+    private Mono<Void> onError(ServerWebExchange exchange, AuthRejection rejection) {
+        rejectionCounters.get(rejection).increment();
+        
         ServerHttpResponse response = exchange.getResponse();
-        response.setStatusCode(httpStatus);
-        response.getHeaders().add("Content-Type", "application/json");
+        response.setStatusCode(rejection.getStatus());
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(rejection.getBody().length);
         
-        String body = String.format("{\"error\":\"%s\",\"status\":%d}", error, httpStatus.value());
-        return response.writeWith(Mono.just(response.bufferFactory().wrap(body.getBytes())));
+        // wrap() does not copy, so rejections allocate only the buffer handle
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(rejection.getBody())));
     }
 
     public static class Config {
@@ -0,0 +1,161 @@
+package com.microservices.gateway.filter;
+
+import com.microservices.gateway.ratelimit.RateLimitDecision;
+import com.microservices.gateway.ratelimit.TokenBucketStore;
+import com.microservices.gateway.util.JwtPrincipal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Token-bucket admission control per route. Protected routes are limited per user ID taken
+ * from the claims verified by {@link JwtAuthenticationFilter} (so it must be listed after it);
+ * public routes are limited per client IP.
+ */
+@Component
+public class RateLimitFilter extends AbstractGatewayFilterFactory<RateLimitFilter.Config> {
+
+    public static final String KEY_USER = "user";
+    public static final String KEY_IP = "ip";
+
+    private static final byte[] TOO_MANY_REQUESTS_BODY =
+        "{\"error\":\"Too many requests\",\"status\":429}".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private TokenBucketStore tokenBucketStore;
+
+    @Value("${gateway.rate-limit.trust-forwarded-for:false}")
+    private boolean trustForwardedFor;
+
+    @Value("${gateway.rate-limit.trusted-proxy-hops:1}")
+    private int trustedProxyHops = 1;
+
+    public RateLimitFilter() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            String key = resolveKey(exchange, config);
+
+            return tokenBucketStore.tryConsume(key, config.getReplenishRate(), config.getBurstCapacity())
+                .flatMap(decision -> {
+                    HttpHeaders headers = exchange.getResponse().getHeaders();
+                    headers.set("X-RateLimit-Limit", Integer.toString(config.getBurstCapacity()));
+                    headers.set("X-RateLimit-Remaining", Long.toString(decision.remaining()));
+
+                    if (decision.allowed()) {
+                        return chain.filter(exchange);
+                    }
+                    return onLimited(exchange, decision);
+                });
+        };
+    }
+
+    private String resolveKey(ServerWebExchange exchange, Config config) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "default";
+
+        if (KEY_USER.equalsIgnoreCase(config.getKey())) {
+            JwtPrincipal principal = exchange.getAttribute(JwtAuthenticationFilter.PRINCIPAL_ATTRIBUTE);
+            if (principal != null && principal.userId() != null) {
+                return routeId + ":user:" + principal.userId();
+            }
+        }
+        // Public routes, and protected routes reached without a verified principal, fall back to the client IP
+        return routeId + ":ip:" + clientIp(exchange);
+    }
+
+    private String clientIp(ServerWebExchange exchange) {
+        if (trustForwardedFor) {
+            String forwardedFor = forwardedClient(exchange.getRequest().getHeaders().get("X-Forwarded-For"));
+            if (forwardedFor != null) {
+                return forwardedFor;
+            }
+        }
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        return remoteAddress != null && remoteAddress.getAddress() != null
+            ? remoteAddress.getAddress().getHostAddress()
+            : "unknown";
+    }
+
+    /**
+     * Walks X-Forwarded-For in from the right past the trusted proxies; entries further left were
+     * written by the client and are never used. Returns null when the header is shorter than the
+     * configured number of hops.
+     */
+    private String forwardedClient(List<String> forwardedForHeaders) {
+        if (forwardedForHeaders == null || trustedProxyHops < 1) {
+            return null;
+        }
+        List<String> hops = new ArrayList<>();
+        for (String header : forwardedForHeaders) {
+            for (String hop : header.split(",")) {
+                if (!hop.isBlank()) {
+                    hops.add(hop.trim());
+                }
+            }
+        }
+        int index = hops.size() - trustedProxyHops;
+        return index >= 0 ? hops.get(index) : null;
+    }
+
+    private Mono<Void> onLimited(ServerWebExchange exchange, RateLimitDecision decision) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(TOO_MANY_REQUESTS_BODY.length);
+        // Retry-After is in whole seconds, rounded up
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString((decision.retryAfterMillis() + 999) / 1000));
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(TOO_MANY_REQUESTS_BODY)));
+    }
+
+    public static class Config {
+        // "user" (verified user ID) or "ip" (client address)
+        private String key = KEY_USER;
+        // Tokens added to the bucket per second
+        private int replenishRate = 10;
+        // Maximum requests allowed in a burst
+        private int burstCapacity = 20;
+
+        public String getKey() {
+            return key;
+        }
+
+        public void setKey(String key) {
+            this.key = key;
+        }
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.microservices.gateway.filter;
+
+import com.microservices.gateway.cache.BoundedBodyCapture;
+import com.microservices.gateway.cache.CachedResponse;
+import com.microservices.gateway.util.JwtPrincipal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Merges identical concurrent GETs (same route, path, query, user, Accept-Encoding and Accept)
+ * into one upstream call.
+ * The first request is forwarded; requests arriving while it is in flight wait up to
+ * {@code maxWait} for its response and receive a copy. If the leader fails, its response is not
+ * shareable, or the wait times out, a waiter simply makes its own upstream call.
+ *
+ * <p>Must be listed after {@link JwtAuthenticationFilter} so responses are never shared across users.
+ */
+@Component
+public class RequestCoalescingFilter extends AbstractGatewayFilterFactory<RequestCoalescingFilter.Config> {
+
+    private final ConcurrentMap<String, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final int maxInFlight;
+    private final int maxBodyBytes;
+    private final Counter coalescedRequests;
+
+    public RequestCoalescingFilter(MeterRegistry meterRegistry,
+                                   @Value("${gateway.coalescing.max-in-flight:1000}") int maxInFlight,
+                                   @Value("${gateway.coalescing.max-body-bytes:1048576}") int maxBodyBytes) {
+        super(Config.class);
+        this.maxInFlight = maxInFlight;
+        this.maxBodyBytes = maxBodyBytes;
+        this.coalescedRequests = Counter.builder("gateway.coalescing.merged")
+            .description("Requests answered from another in-flight request's response")
+            .register(meterRegistry);
+        Gauge.builder("gateway.coalescing.in.flight", inFlight, ConcurrentMap::size)
+            .description("Distinct upstream GETs currently shared by waiting requests")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+
+            String key = coalescingKey(exchange);
+            Sinks.One<CachedResponse> existing = inFlight.get(key);
+            if (existing != null) {
+                return awaitLeader(exchange, chain, existing, config.getMaxWait());
+            }
+            if (inFlight.size() >= maxInFlight) {
+                return chain.filter(exchange);
+            }
+
+            Sinks.One<CachedResponse> sink = Sinks.one();
+            existing = inFlight.putIfAbsent(key, sink);
+            if (existing != null) {
+                return awaitLeader(exchange, chain, existing, config.getMaxWait());
+            }
+
+            SharingResponseDecorator decorator = new SharingResponseDecorator(exchange, key, sink);
+            return chain.filter(exchange.mutate().response(decorator).build())
+                .doFinally(signal -> {
+                    // Waiters fall back to their own call if no response was shared
+                    inFlight.remove(key, sink);
+                    sink.tryEmitEmpty();
+                });
+        };
+    }
+
+    private Mono<Void> awaitLeader(ServerWebExchange exchange, GatewayFilterChain chain,
+                                   Sinks.One<CachedResponse> leader, Duration maxWait) {
+        return leader.asMono()
+            .timeout(maxWait)
+            .map(Optional::of)
+            .onErrorReturn(Optional.empty())
+            .defaultIfEmpty(Optional.empty())
+            .flatMap(shared -> {
+                if (shared.isEmpty()) {
+                    return chain.filter(exchange);
+                }
+                coalescedRequests.increment();
+                exchange.getResponse().getHeaders().set("X-Coalesced", "true");
+                return shared.get().writeTo(exchange.getResponse());
+            });
+    }
+
+    private static String coalescingKey(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        JwtPrincipal principal = exchange.getAttribute(JwtAuthenticationFilter.PRINCIPAL_ATTRIBUTE);
+        String rawQuery = exchange.getRequest().getURI().getRawQuery();
+        return (route != null ? route.getId() : "")
+            + " " + (principal != null ? principal.userId() : "anonymous")
+            + " " + exchange.getRequest().getURI().getRawPath()
+            + (rawQuery != null ? "?" + rawQuery : "")
+            + CachedResponse.negotiationKey(exchange.getRequest().getHeaders());
+    }
+
+    /**
+     * Holds back the leader's successful response body until it is complete so it can be handed
+     * to waiters, then writes it to the leader's own client. A body over {@code max-body-bytes}
+     * is not shared and streams straight through.
+     */
+    private class SharingResponseDecorator extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final Sinks.One<CachedResponse> sink;
+
+        SharingResponseDecorator(ServerWebExchange exchange, String key, Sinks.One<CachedResponse> sink) {
+            super(exchange.getResponse());
+            this.key = key;
+            this.sink = sink;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            if (status == null || !status.is2xxSuccessful() || getHeaders().getContentLength() > maxBodyBytes) {
+                inFlight.remove(key, sink);
+                sink.tryEmitEmpty();
+                return super.writeWith(body);
+            }
+
+            Flux<DataBuffer> captured = BoundedBodyCapture.capture(body, maxBodyBytes, bufferFactory(), bytes -> {
+                // Stop accepting new waiters before publishing so late arrivals start a fresh call
+                inFlight.remove(key, sink);
+                sink.tryEmitValue(CachedResponse.of(status, getHeaders(), bytes, null, Duration.ZERO));
+            }, () -> {
+                // Too large to share; waiters make their own calls while this one streams through
+                inFlight.remove(key, sink);
+                sink.tryEmitEmpty();
+            });
+            return super.writeWith(captured);
+        }
+    }
+
+    public static class Config {
+        // Longest a waiting request holds on for the shared response before calling upstream itself
+        private Duration maxWait = Duration.ofSeconds(5);
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+}
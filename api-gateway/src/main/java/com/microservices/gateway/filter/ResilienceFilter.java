@@ -0,0 +1,203 @@
+package com.microservices.gateway.filter;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Isolates each downstream service behind its own bulkhead (maximum in-flight requests) and
+ * circuit breaker, so one slow or failing service cannot exhaust gateway capacity needed by the
+ * others. Routes to the same service share both by using the same {@code name}.
+ *
+ * <p>Connect and response timeouts are set per route through the {@code connect-timeout} and
+ * {@code response-timeout} route metadata, which the routing filter applies to the upstream
+ * call; a timeout surfaces as an error and is counted as a breaker failure.
+ */
+@Component
+public class ResilienceFilter extends AbstractGatewayFilterFactory<ResilienceFilter.Config> {
+
+    private static final byte[] CIRCUIT_OPEN_BODY =
+        "{\"error\":\"Service temporarily unavailable\",\"reason\":\"circuit_open\",\"status\":503}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] BULKHEAD_FULL_BODY =
+        "{\"error\":\"Service temporarily unavailable\",\"reason\":\"bulkhead_full\",\"status\":503}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+    private final BulkheadRegistry bulkheadRegistry = BulkheadRegistry.ofDefaults();
+
+    public ResilienceFilter(MeterRegistry meterRegistry) {
+        super(Config.class);
+        // Publishes breaker state, call outcomes and bulkhead capacity per downstream name
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(meterRegistry);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return Arrays.asList("name");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // The first route to register a name defines its settings; later routes share the instances
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(config.getName(), CircuitBreakerConfig.custom()
+            .failureRateThreshold(config.getFailureRateThreshold())
+            .slidingWindowSize(config.getSlidingWindowSize())
+            .minimumNumberOfCalls(config.getMinimumNumberOfCalls())
+            .waitDurationInOpenState(config.getWaitDurationInOpenState())
+            .permittedNumberOfCallsInHalfOpenState(config.getPermittedCallsInHalfOpenState())
+            .automaticTransitionFromOpenToHalfOpenEnabled(true)
+            .build());
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(config.getName(), BulkheadConfig.custom()
+            .maxConcurrentCalls(config.getMaxConcurrentCalls())
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+        long retryAfterSeconds = Math.max(1, config.getWaitDurationInOpenState().toSeconds());
+
+        return (exchange, chain) -> {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                return reject(exchange, CIRCUIT_OPEN_BODY, retryAfterSeconds);
+            }
+            if (!bulkhead.tryAcquirePermission()) {
+                circuitBreaker.releasePermission();
+                return reject(exchange, BULKHEAD_FULL_BODY, 1);
+            }
+
+            long start = circuitBreaker.getCurrentTimestamp();
+            return chain.filter(exchange)
+                .doOnSuccess(v -> {
+                    long duration = circuitBreaker.getCurrentTimestamp() - start;
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    if (status != null && status.is5xxServerError()) {
+                        circuitBreaker.onError(duration, circuitBreaker.getTimestampUnit(), new UpstreamServerError(status));
+                    } else {
+                        circuitBreaker.onSuccess(duration, circuitBreaker.getTimestampUnit());
+                    }
+                })
+                .doOnError(e -> {
+                    if (e instanceof ResponseStatusException rse && rse.getStatusCode().is4xxClientError()) {
+                        // Rejected because of the client (e.g. an oversized upload), not the downstream
+                        circuitBreaker.releasePermission();
+                    } else {
+                        circuitBreaker.onError(
+                            circuitBreaker.getCurrentTimestamp() - start, circuitBreaker.getTimestampUnit(), e);
+                    }
+                })
+                .doOnCancel(circuitBreaker::releasePermission)
+                .doFinally(signal -> bulkhead.onComplete());
+        };
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, byte[] body, long retryAfterSeconds) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(body.length);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    /**
+     * Recorded against the breaker when the downstream answered, but with a 5xx status.
+     */
+    static class UpstreamServerError extends RuntimeException {
+        UpstreamServerError(HttpStatusCode status) {
+            super("Upstream responded with " + status.value(), null, false, false);
+        }
+    }
+
+    public static class Config {
+        // Downstream service name; routes with the same name share one breaker and bulkhead
+        private String name;
+        // Maximum requests in flight to this downstream
+        private int maxConcurrentCalls = 100;
+        // Failure percentage that opens the breaker
+        private float failureRateThreshold = 50;
+        private int slidingWindowSize = 50;
+        private int minimumNumberOfCalls = 20;
+        // How long the breaker fast-fails before letting probe calls through
+        private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+        // Probe calls allowed while half-open
+        private int permittedCallsInHalfOpenState = 5;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        public float getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(float failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public int getMinimumNumberOfCalls() {
+            return minimumNumberOfCalls;
+        }
+
+        public void setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+            this.minimumNumberOfCalls = minimumNumberOfCalls;
+        }
+
+        public Duration getWaitDurationInOpenState() {
+            return waitDurationInOpenState;
+        }
+
+        public void setWaitDurationInOpenState(Duration waitDurationInOpenState) {
+            this.waitDurationInOpenState = waitDurationInOpenState;
+        }
+
+        public int getPermittedCallsInHalfOpenState() {
+            return permittedCallsInHalfOpenState;
+        }
+
+        public void setPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+            this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+        }
+    }
+}
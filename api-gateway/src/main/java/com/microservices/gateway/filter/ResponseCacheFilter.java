@@ -0,0 +1,197 @@
+package com.microservices.gateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.microservices.gateway.cache.BoundedBodyCapture;
+import com.microservices.gateway.cache.CachedResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Caches complete GET responses of public reference endpoints in memory. Hits are served
+ * without contacting the backend, and a matching If-None-Match is answered with 304.
+ *
+ * <p>Entries are keyed by route, path, query and the client's Accept-Encoding and Accept, so a
+ * compressed body is only replayed to clients that asked for that encoding. Responses that vary
+ * on any other request header are not cached.
+ */
+@Component
+public class ResponseCacheFilter extends AbstractGatewayFilterFactory<ResponseCacheFilter.Config> {
+
+    private final Cache<String, CachedResponse> cache;
+    private final int maxBodyBytes;
+
+    public ResponseCacheFilter(MeterRegistry meterRegistry,
+                               @Value("${gateway.response-cache.max-bytes:16777216}") long maxBytes,
+                               @Value("${gateway.response-cache.max-body-bytes:1048576}") int maxBodyBytes) {
+        super(Config.class);
+        this.maxBodyBytes = maxBodyBytes;
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String key, CachedResponse response) -> key.length() + response.body().length)
+            .expireAfter(new Expiry<String, CachedResponse>() {
+                @Override
+                public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                    return response.ttl().toNanos();
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, CachedResponse response, long currentTime, long currentDuration) {
+                    return response.ttl().toNanos();
+                }
+
+                @Override
+                public long expireAfterRead(String key, CachedResponse response, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway-responses");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+
+            String key = cacheKey(exchange);
+            CachedResponse cached = cache.getIfPresent(key);
+            if (cached != null) {
+                return writeCached(exchange, cached);
+            }
+
+            CachingResponseDecorator decorator = new CachingResponseDecorator(exchange, key, config.getTtl());
+            return chain.filter(exchange.mutate().response(decorator).build());
+        };
+    }
+
+    private static String cacheKey(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String rawQuery = exchange.getRequest().getURI().getRawQuery();
+        return (route != null ? route.getId() : "") + " " + exchange.getRequest().getURI().getRawPath()
+            + (rawQuery != null ? "?" + rawQuery : "")
+            + CachedResponse.negotiationKey(exchange.getRequest().getHeaders());
+    }
+
+    private static Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        String ifNoneMatch = exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+
+        if (cached.matches(ifNoneMatch)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().setETag(cached.etag());
+            response.getHeaders().set("X-Cache", "HIT");
+            return response.setComplete();
+        }
+
+        response.getHeaders().set("X-Cache", "HIT");
+        return cached.writeTo(response);
+    }
+
+    private static String computeEtag(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private boolean isCacheable(HttpStatusCode status, HttpHeaders headers) {
+        if (status == null || status.value() != HttpStatus.OK.value() || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        if (headers.getContentLength() > maxBodyBytes || !variesOnlyOnEncoding(headers.getVary())) {
+            return false;
+        }
+        String cacheControl = headers.getCacheControl();
+        return cacheControl == null || !(cacheControl.contains("no-store") || cacheControl.contains("private"));
+    }
+
+    // The cache key already carries Accept-Encoding; any other Vary would need its header in the key too
+    private static boolean variesOnlyOnEncoding(List<String> vary) {
+        return vary.stream().allMatch(HttpHeaders.ACCEPT_ENCODING::equalsIgnoreCase);
+    }
+
+    /**
+     * Holds back the upstream body until it is complete so it can be stored, then writes it to
+     * the client. Bodies over the entry size limit are passed through uncached.
+     */
+    private class CachingResponseDecorator extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final Duration ttl;
+
+        CachingResponseDecorator(ServerWebExchange exchange, String key, Duration ttl) {
+            super(exchange.getResponse());
+            this.key = key;
+            this.ttl = ttl;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!isCacheable(getStatusCode(), getHeaders())) {
+                return super.writeWith(body);
+            }
+
+            Flux<DataBuffer> captured = BoundedBodyCapture.capture(body, maxBodyBytes, bufferFactory(), bytes -> {
+                String etag = getHeaders().getETag() != null ? getHeaders().getETag() : computeEtag(bytes);
+                getHeaders().setETag(etag);
+                cache.put(key, CachedResponse.of(getStatusCode(), getHeaders(), bytes, etag, ttl));
+                getHeaders().set("X-Cache", "MISS");
+            }, () -> {
+                // Larger than a cache entry may be; served uncached
+            });
+            return super.writeWith(captured);
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            // Streaming responses are never cached
+            return super.writeAndFlushWith(body);
+        }
+    }
+
+    public static class Config {
+        // How long a response is served from the gateway before the backend is asked again
+        private Duration ttl = Duration.ofMinutes(5);
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
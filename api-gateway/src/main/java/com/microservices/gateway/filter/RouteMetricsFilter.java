@@ -0,0 +1,60 @@
+package com.microservices.gateway.filter;
+
+import com.microservices.gateway.metrics.RouteMetrics;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records total latency, status class and in-flight requests for every routed request, and
+ * requests cancelled before they completed. Runs before all other filters so rejections by
+ * authentication, rate limiting and resilience filters are measured too.
+ */
+@Component
+public class RouteMetricsFilter implements GlobalFilter, Ordered {
+
+    private final RouteMetrics routeMetrics;
+
+    public RouteMetricsFilter(RouteMetrics routeMetrics) {
+        this.routeMetrics = routeMetrics;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        String routeId = routeId(exchange);
+        AtomicInteger inFlight = routeMetrics.inFlight(routeId);
+        long start = System.nanoTime();
+        inFlight.incrementAndGet();
+
+        return chain.filter(exchange)
+            .doOnSuccess(v -> routeMetrics.recordRequest(routeId, statusOf(exchange), System.nanoTime() - start))
+            .doOnError(e -> routeMetrics.recordRequest(routeId,
+                e instanceof ResponseStatusException rse ? rse.getStatusCode().value() : 0, System.nanoTime() - start))
+            .doOnCancel(() -> routeMetrics.recordCancelled(routeId, System.nanoTime() - start))
+            .doFinally(signal -> inFlight.decrementAndGet());
+    }
+
+    static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "unknown";
+    }
+
+    private static int statusOf(ServerWebExchange exchange) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        return status != null ? status.value() : 200;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,130 @@
+package com.microservices.gateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Enforces an upload size limit on routes that carry large request bodies, without ever
+ * holding the body: a declared {@code Content-Length} over the limit is rejected before any byte
+ * is read, and otherwise bytes are counted as they pass through to the downstream, failing the
+ * request once the limit is crossed. Buffers are forwarded one by one as the routing filter
+ * requests them, so the client is only read as fast as the downstream accepts data.
+ *
+ * <p>Routes using this filter must not use {@link ResponseCacheFilter} or
+ * {@link RequestCoalescingFilter}, which aggregate response bodies.
+ */
+@Component
+public class StreamingUploadFilter extends AbstractGatewayFilterFactory<StreamingUploadFilter.Config> {
+
+    private static final byte[] TOO_LARGE_BODY =
+        "{\"error\":\"Request body too large\",\"reason\":\"payload_too_large\",\"status\":413}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final Counter declaredRejections;
+    private final Counter streamedRejections;
+
+    public StreamingUploadFilter(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.declaredRejections = Counter.builder("gateway.upload.rejections")
+            .description("Uploads rejected for exceeding the route's size limit")
+            .tag("reason", "content_length")
+            .register(meterRegistry);
+        this.streamedRejections = Counter.builder("gateway.upload.rejections")
+            .description("Uploads rejected for exceeding the route's size limit")
+            .tag("reason", "streamed")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return Arrays.asList("maxSize");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        long maxBytes = config.getMaxSize().toBytes();
+
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getHeaders().getContentLength() > maxBytes) {
+                declaredRejections.increment();
+                return reject(exchange);
+            }
+
+            ServerHttpRequest limited = new ServerHttpRequestDecorator(request) {
+                @Override
+                public Flux<DataBuffer> getBody() {
+                    AtomicLong received = new AtomicLong();
+                    return super.getBody().handle((buffer, sink) -> {
+                        if (received.addAndGet(buffer.readableByteCount()) > maxBytes) {
+                            DataBufferUtils.release(buffer);
+                            sink.error(new PayloadTooLargeException(maxBytes));
+                        } else {
+                            sink.next(buffer);
+                        }
+                    });
+                }
+            };
+
+            return chain.filter(exchange.mutate().request(limited).build())
+                .onErrorResume(PayloadTooLargeException.class, e -> {
+                    streamedRejections.increment();
+                    // Part of the body may already be upstream; the aborted upstream request is discarded
+                    return exchange.getResponse().isCommitted() ? Mono.error(e) : reject(exchange);
+                });
+        };
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.PAYLOAD_TOO_LARGE);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(TOO_LARGE_BODY.length);
+        // Ask the client not to keep sending a body nobody will read
+        response.getHeaders().setConnection("close");
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(TOO_LARGE_BODY)));
+    }
+
+    /**
+     * Raised from the body stream; a 4xx status, so the resilience filter does not count it
+     * against the downstream.
+     */
+    static class PayloadTooLargeException extends ResponseStatusException {
+        PayloadTooLargeException(long maxBytes) {
+            super(HttpStatus.PAYLOAD_TOO_LARGE, "Request body exceeds " + maxBytes + " bytes");
+        }
+    }
+
+    public static class Config {
+        // Largest request body accepted on the route, e.g. 20MB
+        private DataSize maxSize = DataSize.ofMegabytes(20);
+
+        public DataSize getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(DataSize maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+}
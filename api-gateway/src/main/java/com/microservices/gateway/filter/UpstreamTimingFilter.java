@@ -0,0 +1,52 @@
+package com.microservices.gateway.filter;
+
+import com.microservices.gateway.metrics.RouteMetrics;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Times only the downstream call: runs immediately before the Netty routing filter, whose
+ * completion marks the arrival of the downstream response headers.
+ *
+ * <p>The start time and route are also written to the Reactor context so the HTTP client can
+ * record how long the request waited for a pooled connection. The measured time is left in the
+ * {@link #UPSTREAM_NANOS_ATTRIBUTE} exchange attribute for filters that adapt to downstream latency.
+ */
+@Component
+public class UpstreamTimingFilter implements GlobalFilter, Ordered {
+
+    public static final String START_NANOS_CONTEXT_KEY = UpstreamTimingFilter.class.getName() + ".start";
+    public static final String ROUTE_CONTEXT_KEY = UpstreamTimingFilter.class.getName() + ".route";
+
+    // Exchange attribute (Long): nanoseconds until the downstream responded; absent if it was never called
+    public static final String UPSTREAM_NANOS_ATTRIBUTE = UpstreamTimingFilter.class.getName() + ".upstreamNanos";
+
+    private final RouteMetrics routeMetrics;
+
+    public UpstreamTimingFilter(RouteMetrics routeMetrics) {
+        this.routeMetrics = routeMetrics;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return Mono.defer(() -> {
+            String routeId = RouteMetricsFilter.routeId(exchange);
+            long start = System.nanoTime();
+            return chain.filter(exchange)
+                // Set before the signal reaches earlier filters, which doFinally would not guarantee
+                .doOnTerminate(() -> exchange.getAttributes().put(UPSTREAM_NANOS_ATTRIBUTE, System.nanoTime() - start))
+                .doFinally(signal -> routeMetrics.recordUpstream(routeId, System.nanoTime() - start))
+                .contextWrite(context -> context.put(START_NANOS_CONTEXT_KEY, start).put(ROUTE_CONTEXT_KEY, routeId));
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyRoutingFilter.ORDER - 1;
+    }
+}
@@ -0,0 +1,108 @@
+package com.microservices.gateway.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-route latency histograms, status-class counts and in-flight gauges. Meters are created
+ * once per route and then looked up from maps, so recording costs no registry lookups.
+ *
+ * <p>Each timer publishes HdrHistogram-backed percentiles plus Prometheus histogram buckets;
+ * the count of {@code gateway.route.requests} per {@code status} tag doubles as the
+ * status-class counter. Requests cancelled before a response completed are tagged
+ * {@code status=CANCELLED}, so the slowest requests, the ones a client gave up on, are still counted.
+ */
+@Component
+public class RouteMetrics {
+
+    // The last one is for requests cancelled before they completed (client gone, upstream timeout)
+    private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx", "CANCELLED"};
+    private static final int CANCELLED = STATUS_CLASSES.length - 1;
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Timer[]> requestTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> upstreamTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> acquireTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final Timer jwtVerificationTimer;
+
+    public RouteMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.jwtVerificationTimer = latencyTimer("gateway.jwt.verification")
+            .description("Time spent verifying JWTs that were not in the verified-token cache")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @param status HTTP status code, or 0 when the request failed without one (counted as 5xx)
+     */
+    public void recordRequest(String routeId, int status, long durationNanos) {
+        Timer[] timers = requestTimers.computeIfAbsent(routeId, this::createRequestTimers);
+        int statusClass = status >= 100 && status < 600 ? status / 100 - 1 : 4;
+        timers[statusClass].record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordCancelled(String routeId, long durationNanos) {
+        requestTimers.computeIfAbsent(routeId, this::createRequestTimers)[CANCELLED]
+            .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordUpstream(String routeId, long durationNanos) {
+        upstreamTimers.computeIfAbsent(routeId, id -> latencyTimer("gateway.route.upstream")
+                .description("Time from forwarding a request until the downstream response headers arrive")
+                .tag("route", id)
+                .register(meterRegistry))
+            .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordUpstreamAcquire(String routeId, long durationNanos) {
+        acquireTimers.computeIfAbsent(routeId, id -> latencyTimer("gateway.route.upstream.acquire")
+                .description("Time from forwarding a request until a pooled connection is ready to send it, including any connect")
+                .tag("route", id)
+                .register(meterRegistry))
+            .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public Timer jwtVerificationTimer() {
+        return jwtVerificationTimer;
+    }
+
+    public AtomicInteger inFlight(String routeId) {
+        return inFlight.computeIfAbsent(routeId, id -> {
+            AtomicInteger gauge = new AtomicInteger();
+            Gauge.builder("gateway.route.in.flight", gauge, AtomicInteger::get)
+                .description("Requests currently being processed for the route")
+                .tag("route", id)
+                .register(meterRegistry);
+            return gauge;
+        });
+    }
+
+    private Timer[] createRequestTimers(String routeId) {
+        Timer[] timers = new Timer[STATUS_CLASSES.length];
+        for (int i = 0; i < STATUS_CLASSES.length; i++) {
+            timers[i] = latencyTimer("gateway.route.requests")
+                .description("Total time the gateway spent on a request, by route and status class or cancellation")
+                .tag("route", routeId)
+                .tag("status", STATUS_CLASSES[i])
+                .register(meterRegistry);
+        }
+        return timers;
+    }
+
+    private static Timer.Builder latencyTimer(String name) {
+        return Timer.builder(name)
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(100_000))
+            .maximumExpectedValue(Duration.ofSeconds(30));
+    }
+}
@@ -0,0 +1,63 @@
+package com.microservices.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory token buckets, one per key, limiting this gateway replica only. Also serves as the
+ * stand-in for the Redis store in tests and local runs.
+ *
+ * <p>Each bucket is a single {@link AtomicLong} holding the bucket's "theoretical arrival time"
+ * (the GCRA formulation of a token bucket), so taking a token is one compare-and-set with no locks.
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.rate-limit.store", havingValue = "local", matchIfMissing = true)
+public class LocalTokenBucketStore implements TokenBucketStore {
+
+    @Value("${gateway.rate-limit.local.max-keys:100000}")
+    private long maxKeys;
+
+    @Value("${gateway.rate-limit.local.idle-expiry:10m}")
+    private Duration idleExpiry;
+
+    private Cache<String, AtomicLong> buckets;
+
+    @PostConstruct
+    void init() {
+        buckets = Caffeine.newBuilder()
+            .maximumSize(maxKeys)
+            .expireAfterAccess(idleExpiry)
+            .build();
+    }
+
+    @Override
+    public Mono<RateLimitDecision> tryConsume(String key, int replenishRate, int burstCapacity) {
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        return Mono.just(tryConsume(bucket, replenishRate, burstCapacity, System.nanoTime()));
+    }
+
+    static RateLimitDecision tryConsume(AtomicLong bucket, int replenishRate, int burstCapacity, long now) {
+        long interval = Math.max(1L, Duration.ofSeconds(1).toNanos() / Math.max(1, replenishRate));
+        long capacity = interval * Math.max(1, burstCapacity);
+
+        while (true) {
+            long tat = bucket.get();
+            long newTat = Math.max(tat, now) + interval;
+            long backlog = newTat - now;
+            if (backlog > capacity) {
+                return RateLimitDecision.deny(Duration.ofNanos(backlog - capacity).toMillis() + 1);
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                return RateLimitDecision.allow((capacity - backlog) / interval);
+            }
+        }
+    }
+}
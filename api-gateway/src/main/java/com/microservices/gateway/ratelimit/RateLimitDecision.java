@@ -0,0 +1,19 @@
+package com.microservices.gateway.ratelimit;
+
+/**
+ * Outcome of taking one token from a bucket.
+ *
+ * @param allowed           whether the request may proceed
+ * @param remaining         tokens left in the bucket after this request
+ * @param retryAfterMillis  how long until a token is available again (0 when allowed)
+ */
+public record RateLimitDecision(boolean allowed, long remaining, long retryAfterMillis) {
+
+    public static RateLimitDecision allow(long remaining) {
+        return new RateLimitDecision(true, remaining, 0);
+    }
+
+    public static RateLimitDecision deny(long retryAfterMillis) {
+        return new RateLimitDecision(false, 0, retryAfterMillis);
+    }
+}
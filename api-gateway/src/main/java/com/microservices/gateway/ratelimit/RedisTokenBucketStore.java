@@ -0,0 +1,60 @@
+package com.microservices.gateway.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Token buckets kept in Redis so every gateway replica enforces the same limit. The bucket
+ * update runs as one Lua script using the Redis clock. If Redis is unreachable the request
+ * is allowed rather than failing the whole gateway.
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.rate-limit.store", havingValue = "redis")
+public class RedisTokenBucketStore implements TokenBucketStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisTokenBucketStore.class);
+
+    private static final String KEY_PREFIX = "gateway:rate-limit:";
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/token_bucket.lua"), List.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    public RedisTokenBucketStore(ReactiveStringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Mono<RateLimitDecision> tryConsume(String key, int replenishRate, int burstCapacity) {
+        long interval = Math.max(1L, Duration.ofSeconds(1).toNanos() / 1000 / Math.max(1, replenishRate));
+        long capacity = interval * Math.max(1, burstCapacity);
+
+        return redisTemplate.execute(SCRIPT, List.of(KEY_PREFIX + key),
+                List.of(Long.toString(interval), Long.toString(capacity)))
+            .next()
+            .map(RedisTokenBucketStore::toDecision)
+            .onErrorResume(e -> {
+                logger.warn("Rate limit store unavailable, allowing request for key {}: {}", key, e.getMessage());
+                return Mono.just(RateLimitDecision.allow(burstCapacity));
+            });
+    }
+
+    private static RateLimitDecision toDecision(List<?> result) {
+        long allowed = ((Number) result.get(0)).longValue();
+        if (allowed == 1) {
+            return RateLimitDecision.allow(((Number) result.get(1)).longValue());
+        }
+        return RateLimitDecision.deny(((Number) result.get(2)).longValue() / 1000 + 1);
+    }
+}
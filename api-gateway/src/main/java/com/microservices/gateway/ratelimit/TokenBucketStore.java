@@ -0,0 +1,19 @@
+package com.microservices.gateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Storage for per-key token buckets used by {@link com.microservices.gateway.filter.RateLimitFilter}.
+ * The in-memory implementation limits each gateway replica on its own; the Redis one shares
+ * buckets across replicas.
+ */
+public interface TokenBucketStore {
+
+    /**
+     * Takes one token from the bucket identified by {@code key}, creating a full bucket on first use.
+     *
+     * @param replenishRate  tokens added per second
+     * @param burstCapacity  maximum tokens the bucket can hold
+     */
+    Mono<RateLimitDecision> tryConsume(String key, int replenishRate, int burstCapacity);
+}
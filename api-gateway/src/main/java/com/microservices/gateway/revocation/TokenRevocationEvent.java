@@ -0,0 +1,13 @@
+package com.microservices.gateway.revocation;
+
+/**
+ * Revocation published by auth-service on the token revocation topic. A {@code TOKEN} event
+ * revokes one access token by {@code jti}; a {@code USER} event revokes every access token of
+ * the user issued before {@code notBefore}. Times are epoch seconds except {@code timestamp}.
+ */
+public record TokenRevocationEvent(String type, String tokenId, Long userId, Long notBefore, long expiresAt,
+                                   long timestamp) {
+
+    public static final String TYPE_TOKEN = "TOKEN";
+    public static final String TYPE_USER = "USER";
+}
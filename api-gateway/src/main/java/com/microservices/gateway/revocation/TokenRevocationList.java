@@ -0,0 +1,139 @@
+package com.microservices.gateway.revocation;
+
+import com.microservices.gateway.util.JwtPrincipal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory denylist of revoked access tokens, fed by {@link TokenRevocationListener}. Holds
+ * revoked token IDs behind a Bloom filter, so the common not-revoked case is answered from a
+ * few bit reads, and a per-user "not before" cutoff for logout from all devices. Checks are
+ * lock-free and never leave the process; entries are dropped once the tokens they cover
+ * would have expired anyway.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    // Upper bound between prune passes; pruning runs on the writer thread as events arrive
+    private static final long PRUNE_INTERVAL_SECONDS = 60;
+
+    private record UserCutoff(long notBefore, long expiresAt) {
+    }
+
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<Long, UserCutoff> userCutoffs = new ConcurrentHashMap<>();
+    private final int expectedTokens;
+    private final double falsePositiveRate;
+    private final Counter tokenEvents;
+    private final Counter userEvents;
+
+    private volatile BloomFilter tokenFilter;
+    private long nextPruneAt;
+
+    public TokenRevocationList(MeterRegistry meterRegistry,
+                               @Value("${gateway.revocation.expected-tokens:100000}") int expectedTokens,
+                               @Value("${gateway.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.expectedTokens = expectedTokens;
+        this.falsePositiveRate = falsePositiveRate;
+        this.tokenFilter = new BloomFilter(expectedTokens, falsePositiveRate);
+
+        Gauge.builder("gateway.revocation.tokens", revokedTokens, Map::size)
+            .description("Revoked access tokens held in the denylist")
+            .register(meterRegistry);
+        Gauge.builder("gateway.revocation.users", userCutoffs, Map::size)
+            .description("Users with a logout-all cutoff held in the denylist")
+            .register(meterRegistry);
+        this.tokenEvents = Counter.builder("gateway.revocation.events")
+            .description("Revocation events applied")
+            .tag("type", "token")
+            .register(meterRegistry);
+        this.userEvents = Counter.builder("gateway.revocation.events")
+            .description("Revocation events applied")
+            .tag("type", "user")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Whether the token was revoked after it was issued. Called on every authenticated request,
+     * including verified-token cache hits.
+     */
+    public boolean isRevoked(JwtPrincipal principal) {
+        if (principal.userId() != null && !userCutoffs.isEmpty()) {
+            UserCutoff cutoff = userCutoffs.get(principal.userId());
+            // iat has second precision: a token issued in the same second as the cutoff survives
+            if (cutoff != null && (principal.issuedAt() == null
+                || principal.issuedAt().getEpochSecond() < cutoff.notBefore())) {
+                return true;
+            }
+        }
+        String tokenId = principal.tokenId();
+        return tokenId != null && tokenFilter.mightContain(tokenId) && revokedTokens.containsKey(tokenId);
+    }
+
+    /**
+     * Applies one event. Writes are serialized; readers never block on them.
+     */
+    public synchronized void apply(TokenRevocationEvent event) {
+        long now = Instant.now().getEpochSecond();
+        if (event.expiresAt() <= now) {
+            // Everything it covers has expired already, e.g. when replaying the topic on startup
+            return;
+        }
+
+        if (TokenRevocationEvent.TYPE_USER.equals(event.type())) {
+            if (event.userId() == null || event.notBefore() == null) {
+                log.warn("Ignoring user revocation without userId or notBefore: {}", event);
+                return;
+            }
+            userCutoffs.merge(event.userId(), new UserCutoff(event.notBefore(), event.expiresAt()),
+                (current, update) -> update.notBefore() >= current.notBefore() ? update : current);
+            userEvents.increment();
+        } else if (TokenRevocationEvent.TYPE_TOKEN.equals(event.type()) && event.tokenId() != null) {
+            // The exact set is written first, so a reader that sees the filter bits also sees the entry
+            if (revokedTokens.put(event.tokenId(), event.expiresAt()) == null) {
+                if (tokenFilter.isFull()) {
+                    rebuildFilter();
+                } else {
+                    tokenFilter.put(event.tokenId());
+                }
+            }
+            tokenEvents.increment();
+        } else {
+            log.warn("Ignoring unknown revocation event: {}", event);
+            return;
+        }
+
+        if (now >= nextPruneAt) {
+            prune(now);
+            nextPruneAt = now + PRUNE_INTERVAL_SECONDS;
+        }
+    }
+
+    private void prune(long now) {
+        int tokensBefore = revokedTokens.size();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        userCutoffs.values().removeIf(cutoff -> cutoff.expiresAt() <= now);
+        if (revokedTokens.size() < tokensBefore) {
+            // Expired IDs cannot be removed from the filter, only left out of a new one
+            rebuildFilter();
+        }
+    }
+
+    private void rebuildFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedTokens, revokedTokens.size() * 2), falsePositiveRate);
+        revokedTokens.keySet().forEach(rebuilt::put);
+        tokenFilter = rebuilt;
+        log.debug("Rebuilt revocation filter for {} tokens (capacity {})", revokedTokens.size(), rebuilt.capacity());
+    }
+}
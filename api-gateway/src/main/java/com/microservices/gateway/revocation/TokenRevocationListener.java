@@ -0,0 +1,30 @@
+package com.microservices.gateway.revocation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds the revocation topic published by auth-service into {@link TokenRevocationList}.
+ * Every gateway replica reads the whole topic; see {@code TokenRevocationKafkaConfig}.
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.revocation.enabled", havingValue = "true", matchIfMissing = true)
+public class TokenRevocationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationListener.class);
+
+    @Autowired
+    private TokenRevocationList revocationList;
+
+    @KafkaListener(
+        topics = "${gateway.revocation.topic:token-revocations}",
+        containerFactory = "revocationListenerContainerFactory")
+    public void onRevocation(TokenRevocationEvent event) {
+        log.debug("Applying token revocation: {}", event);
+        revocationList.apply(event);
+    }
+}
@@ -0,0 +1,273 @@
+package com.microservices.gateway.route;
+
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.http.server.PathContainer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Segment trie over the {@code Path} predicates of all routes, used to narrow the routes whose
+ * predicates have to be evaluated for a request. The trie over-approximates: every route it
+ * returns may still be rejected by its full predicate, but no route that could match is left
+ * out, so evaluating the candidates in route order gives the same result as evaluating all routes.
+ *
+ * <p>Routes whose definition has no indexable {@code Path} predicate (Java DSL routes, exotic
+ * patterns) are returned for every request.
+ */
+public final class PathRouteTrie {
+
+    private final List<Route> routes;
+    private final List<String[]> patternsByRoute;
+    private final List<Boolean> pathOnly;
+    private final BitSet unindexed = new BitSet();
+    private final Node root = new Node();
+
+    private PathRouteTrie(List<Route> routes, Map<String, RouteDefinition> definitions) {
+        this.routes = List.copyOf(routes);
+        this.patternsByRoute = new ArrayList<>(routes.size());
+        this.pathOnly = new ArrayList<>(routes.size());
+
+        for (int i = 0; i < this.routes.size(); i++) {
+            RouteDefinition definition = definitions.get(this.routes.get(i).getId());
+            String[] patterns = definition != null ? pathPatterns(definition) : null;
+            boolean indexed = patterns != null;
+            if (indexed) {
+                for (String pattern : patterns) {
+                    indexed &= insert(segments(pattern), i);
+                }
+            }
+            if (!indexed) {
+                unindexed.set(i);
+                patterns = null;
+            }
+            patternsByRoute.add(patterns);
+            pathOnly.add(indexed && definition.getPredicates().size() == 1);
+        }
+    }
+
+    /**
+     * @param routes      routes in evaluation order, as returned by the route locator
+     * @param definitions route definitions by route id, the source of the path patterns
+     */
+    public static PathRouteTrie build(List<Route> routes, Map<String, RouteDefinition> definitions) {
+        return new PathRouteTrie(routes, definitions);
+    }
+
+    public int size() {
+        return routes.size();
+    }
+
+    /**
+     * Routes that may match the path, in evaluation order. Costs one map lookup per path segment
+     * plus one branch per single-segment wildcard in the route patterns.
+     */
+    public List<Route> candidates(PathContainer path) {
+        List<String> segments = new ArrayList<>();
+        for (PathContainer.Element element : path.elements()) {
+            if (element instanceof PathContainer.PathSegment segment) {
+                segments.add(segment.valueToMatch());
+            }
+        }
+        List<PathContainer.Element> elements = path.elements();
+        boolean trailingSeparator = !elements.isEmpty()
+            && elements.get(elements.size() - 1) instanceof PathContainer.Separator;
+
+        BitSet matches = (BitSet) unindexed.clone();
+        collect(root, segments, 0, trailingSeparator, matches);
+
+        List<Route> candidates = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            candidates.add(routes.get(i));
+        }
+        return candidates;
+    }
+
+    /**
+     * Path patterns that can never be reached because an earlier route with only a {@code Path}
+     * predicate accepts every path they accept. These are almost always {@code order} mistakes.
+     */
+    public List<String> shadowedPatterns() {
+        List<String> problems = new ArrayList<>();
+        for (int j = 0; j < routes.size(); j++) {
+            String[] patterns = patternsByRoute.get(j);
+            if (patterns == null) {
+                continue;
+            }
+            for (String pattern : patterns) {
+                String[] shadowed = segments(pattern);
+                for (int i = 0; i < j; i++) {
+                    String shadowing = coveringPattern(i, shadowed);
+                    if (shadowing != null) {
+                        Route earlier = routes.get(i);
+                        Route later = routes.get(j);
+                        problems.add(String.format(
+                            "Path %s of route '%s' (order %d) is unreachable: route '%s' (order %d) matches %s first",
+                            pattern, later.getId(), later.getOrder(), earlier.getId(), earlier.getOrder(), shadowing));
+                        break;
+                    }
+                }
+            }
+        }
+        return problems;
+    }
+
+    private String coveringPattern(int route, String[] shadowed) {
+        String[] patterns = patternsByRoute.get(route);
+        if (patterns == null || !pathOnly.get(route)) {
+            return null;
+        }
+        for (String pattern : patterns) {
+            if (covers(segments(pattern), shadowed)) {
+                return pattern;
+            }
+        }
+        return null;
+    }
+
+    private static boolean covers(String[] general, String[] specific) {
+        for (int i = 0; i < general.length; i++) {
+            if (isRest(general[i])) {
+                return true;
+            }
+            if (i >= specific.length || isRest(specific[i])) {
+                return false;
+            }
+            if (!isFullWildcard(general[i]) && !general[i].equals(specific[i])) {
+                return false;
+            }
+        }
+        return general.length == specific.length;
+    }
+
+    private static void collect(Node node, List<String> segments, int depth, boolean trailingSeparator,
+                                BitSet matches) {
+        if (node.rest != null) {
+            matches.or(node.rest);
+        }
+        if (depth == segments.size()) {
+            if (node.terminal != null) {
+                matches.or(node.terminal);
+            }
+            // PathPattern lets a final "*" match the empty segment after a trailing slash
+            if (trailingSeparator && node.trailingStar != null) {
+                matches.or(node.trailingStar);
+            }
+            return;
+        }
+        Node literal = node.literals.get(segments.get(depth));
+        if (literal != null) {
+            collect(literal, segments, depth + 1, trailingSeparator, matches);
+        }
+        if (node.wildcard != null) {
+            collect(node.wildcard, segments, depth + 1, trailingSeparator, matches);
+        }
+    }
+
+    /**
+     * @return false if the pattern cannot be represented, in which case the route stays unindexed
+     */
+    private boolean insert(String[] segments, int route) {
+        Node node = root;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (isRest(segment)) {
+                if (i != segments.length - 1) {
+                    return false;
+                }
+                node.rest = add(node.rest, route);
+                return true;
+            }
+            if (isLiteral(segment)) {
+                node = node.literals.computeIfAbsent(segment, s -> new Node());
+            } else {
+                if (segment.equals("*") && i == segments.length - 1) {
+                    node.trailingStar = add(node.trailingStar, route);
+                }
+                if (node.wildcard == null) {
+                    node.wildcard = new Node();
+                }
+                node = node.wildcard;
+            }
+        }
+        node.terminal = add(node.terminal, route);
+        return true;
+    }
+
+    private static BitSet add(BitSet routes, int route) {
+        BitSet result = routes != null ? routes : new BitSet();
+        result.set(route);
+        return result;
+    }
+
+    /**
+     * Patterns of the route's first {@code Path} predicate, or null if it has none.
+     */
+    static String[] pathPatterns(RouteDefinition definition) {
+        for (PredicateDefinition predicate : definition.getPredicates()) {
+            if (!"Path".equals(predicate.getName())) {
+                continue;
+            }
+            List<String> patterns = new ArrayList<>();
+            predicate.getArgs().forEach((key, value) -> {
+                // Shortcut form puts patterns under generated keys, followed by an optional matchTrailingSlash flag
+                if (!key.startsWith("_genkey_") && !key.startsWith("patterns")) {
+                    return;
+                }
+                for (String pattern : value.split(",")) {
+                    String trimmed = pattern.trim();
+                    if (!trimmed.isEmpty() && !"true".equals(trimmed) && !"false".equals(trimmed)) {
+                        patterns.add(trimmed);
+                    }
+                }
+            });
+            if (patterns.isEmpty() || patterns.stream().anyMatch(p -> !p.startsWith("/"))) {
+                return null;
+            }
+            return patterns.toArray(String[]::new);
+        }
+        return null;
+    }
+
+    private static String[] segments(String pattern) {
+        return Arrays.stream(pattern.split("/"))
+            .filter(segment -> !segment.isEmpty())
+            .toArray(String[]::new);
+    }
+
+    private static boolean isRest(String segment) {
+        return segment.equals("**") || segment.startsWith("{*");
+    }
+
+    private static boolean isFullWildcard(String segment) {
+        return segment.equals("*")
+            || (segment.startsWith("{") && segment.endsWith("}") && segment.indexOf(':') < 0 && segment.indexOf('{', 1) < 0);
+    }
+
+    private static boolean isLiteral(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c == '*' || c == '?' || c == '{' || c == '}' || c == '\\' || c == '%' || c == ';') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> literals = new HashMap<>();
+        // Single-segment wildcards ("*", "{id}", "img-*.png", ...) share one child
+        private Node wildcard;
+        // Routes whose pattern ends here exactly, and routes ending in "**" / "{*var}" at this node
+        private BitSet terminal;
+        private BitSet rest;
+        // Routes ending in "*" just below this node, which also match this path plus a trailing slash
+        private BitSet trailingStar;
+    }
+}
@@ -0,0 +1,91 @@
+package com.microservices.gateway.route;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Route lookup that only evaluates the routes a {@link PathRouteTrie} selects for the request
+ * path, instead of every route in turn. Candidates are still evaluated in route order with their
+ * full predicates, so the matched route is the same as with the default lookup.
+ *
+ * <p>The trie is rebuilt whenever the gateway refreshes its routes, and every rebuild logs the
+ * path patterns that earlier routes make unreachable.
+ */
+public class TrieRoutePredicateHandlerMapping extends RoutePredicateHandlerMapping
+        implements ApplicationListener<RefreshRoutesResultEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(TrieRoutePredicateHandlerMapping.class);
+    private static final Duration FOREVER = Duration.ofMillis(Long.MAX_VALUE);
+
+    private final RouteLocator routeLocator;
+    private final RouteDefinitionLocator routeDefinitionLocator;
+
+    private volatile Mono<PathRouteTrie> trie;
+
+    public TrieRoutePredicateHandlerMapping(FilteringWebHandler webHandler, RouteLocator routeLocator,
+                                            RouteDefinitionLocator routeDefinitionLocator,
+                                            GlobalCorsProperties globalCorsProperties, Environment environment) {
+        super(webHandler, routeLocator, globalCorsProperties, environment);
+        this.routeLocator = routeLocator;
+        this.routeDefinitionLocator = routeDefinitionLocator;
+        this.trie = buildTrie();
+    }
+
+    @Override
+    public void onApplicationEvent(RefreshRoutesResultEvent event) {
+        if (event.isSuccess()) {
+            Mono<PathRouteTrie> rebuilt = buildTrie();
+            // Build eagerly so ordering problems are reported at load time rather than on first request
+            rebuilt.subscribe(built -> trie = rebuilt,
+                e -> log.error("Could not rebuild route trie, keeping the previous one", e));
+        }
+    }
+
+    @Override
+    protected Mono<Route> lookupRoute(ServerWebExchange exchange) {
+        return trie.flatMap(routes -> Flux
+            .fromIterable(routes.candidates(exchange.getRequest().getPath().pathWithinApplication()))
+            .concatMap(route -> Mono.just(route)
+                .filterWhen(r -> {
+                    exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_PREDICATE_ROUTE_ATTR, r.getId());
+                    return r.getPredicate().apply(exchange);
+                })
+                .doOnError(e -> log.error("Error applying predicate for route: {}", route.getId(), e))
+                .onErrorResume(e -> Mono.empty()))
+            .next()
+            .map(route -> {
+                validateRoute(route, exchange);
+                return route;
+            }));
+    }
+
+    private Mono<PathRouteTrie> buildTrie() {
+        return Mono.zip(
+                routeLocator.getRoutes().collectList(),
+                routeDefinitionLocator.getRouteDefinitions().collectMap(RouteDefinition::getId))
+            .map(tuple -> {
+                PathRouteTrie built = PathRouteTrie.build(tuple.getT1(), tuple.getT2());
+                built.shadowedPatterns().forEach(log::warn);
+                log.info("Indexed {} routes for path lookup", built.size());
+                return built;
+            })
+            // Keep a built trie until the next refresh, but retry a failed build on the next lookup
+            .cache(built -> FOREVER, e -> Duration.ZERO, () -> Duration.ZERO);
+    }
+}
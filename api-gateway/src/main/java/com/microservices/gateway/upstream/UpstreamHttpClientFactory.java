@@ -0,0 +1,85 @@
+package com.microservices.gateway.upstream;
+
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Gateway HTTP client factory whose connection provider keeps a separately sized pool for each
+ * downstream in {@link UpstreamProperties}, so one slow service cannot take every connection.
+ * Hosts that are not listed share the default pool from {@code spring.cloud.gateway.httpclient.pool}.
+ */
+public class UpstreamHttpClientFactory extends HttpClientFactory {
+
+    private final UpstreamProperties upstreamProperties;
+
+    public UpstreamHttpClientFactory(HttpClientProperties properties, ServerProperties serverProperties,
+                                     HttpClientSslConfigurer sslConfigurer, List<HttpClientCustomizer> customizers,
+                                     UpstreamProperties upstreamProperties) {
+        super(properties, serverProperties, sslConfigurer, customizers);
+        this.upstreamProperties = upstreamProperties;
+    }
+
+    @Override
+    protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+        HttpClientProperties.Pool pool = properties.getPool();
+        if (pool.getType() == HttpClientProperties.Pool.PoolType.DISABLED) {
+            return ConnectionProvider.newConnection();
+        }
+
+        ConnectionProvider.Builder builder = ConnectionProvider.builder(pool.getName());
+        applyDefaults(builder, pool);
+
+        upstreamProperties.getHosts().forEach((host, settings) ->
+            // Route URIs resolve to unresolved addresses, so pools are keyed by host name and port
+            builder.forRemoteHost(InetSocketAddress.createUnresolved(host, settings.getPort()), spec -> {
+                // Host-specific specs do not inherit the builder's settings
+                applyDefaults(spec, pool);
+                if (settings.getMaxConnections() != null) {
+                    spec.maxConnections(settings.getMaxConnections());
+                    spec.pendingAcquireTimeout(Duration.ofMillis(pool.getAcquireTimeout()));
+                }
+                if (settings.getPendingAcquireMaxCount() != null) {
+                    spec.pendingAcquireMaxCount(settings.getPendingAcquireMaxCount());
+                }
+                if (settings.getPendingAcquireTimeout() != null) {
+                    spec.pendingAcquireTimeout(settings.getPendingAcquireTimeout());
+                }
+                if (settings.getMaxIdleTime() != null) {
+                    spec.maxIdleTime(settings.getMaxIdleTime());
+                }
+                if (settings.getMaxLifeTime() != null) {
+                    spec.maxLifeTime(settings.getMaxLifeTime());
+                }
+            }));
+
+        return builder.build();
+    }
+
+    private void applyDefaults(ConnectionProvider.ConnectionPoolSpec<?> spec, HttpClientProperties.Pool pool) {
+        if (pool.getType() == HttpClientProperties.Pool.PoolType.FIXED) {
+            spec.maxConnections(pool.getMaxConnections());
+            spec.pendingAcquireTimeout(Duration.ofMillis(pool.getAcquireTimeout()));
+        } else {
+            spec.maxConnections(Integer.MAX_VALUE);
+            spec.pendingAcquireTimeout(Duration.ZERO);
+        }
+        spec.pendingAcquireMaxCount(upstreamProperties.getPendingAcquireMaxCount());
+        if (pool.getMaxIdleTime() != null) {
+            spec.maxIdleTime(pool.getMaxIdleTime());
+        }
+        if (pool.getMaxLifeTime() != null) {
+            spec.maxLifeTime(pool.getMaxLifeTime());
+        }
+        spec.evictInBackground(pool.getEvictionInterval());
+        // Publishes reactor.netty.connection.provider.{total,active,idle,pending}.connections per pool
+        spec.metrics(pool.isMetrics());
+    }
+}
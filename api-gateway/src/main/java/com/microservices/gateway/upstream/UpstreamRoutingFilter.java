@@ -0,0 +1,48 @@
+package com.microservices.gateway.upstream;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Netty routing filter that switches to HTTP/2 cleartext for downstreams configured with
+ * {@code h2c: true}. The client offers h2c via an HTTP/1.1 upgrade, so a service that does not
+ * accept it keeps working over HTTP/1.1. h2c and HTTP/1.1 connections live in separate pools.
+ */
+public class UpstreamRoutingFilter extends NettyRoutingFilter {
+
+    private final Set<String> h2cAuthorities;
+
+    public UpstreamRoutingFilter(HttpClient httpClient, ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+                                 HttpClientProperties properties, UpstreamProperties upstreamProperties) {
+        super(httpClient, headersFiltersProvider, properties);
+        this.h2cAuthorities = upstreamProperties.getHosts().entrySet().stream()
+            .filter(entry -> entry.getValue().isH2c())
+            .map(entry -> entry.getKey() + ":" + entry.getValue().getPort())
+            .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    protected HttpClient getHttpClient(Route route, ServerWebExchange exchange) {
+        HttpClient client = super.getHttpClient(route, exchange);
+        if (h2cAuthorities.isEmpty()) {
+            return client;
+        }
+        URI uri = exchange.getRequiredAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        int port = uri.getPort() != -1 ? uri.getPort() : ("https".equals(uri.getScheme()) ? 443 : 80);
+        return h2cAuthorities.contains(uri.getHost() + ":" + port)
+            ? client.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11)
+            : client;
+    }
+}
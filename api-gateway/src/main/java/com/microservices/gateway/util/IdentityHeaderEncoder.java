@@ -0,0 +1,98 @@
+package com.microservices.gateway.util;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Encodes a verified principal into the signed {@value #HEADER} header that downstream services
+ * trust instead of re-verifying the JWT.
+ *
+ * <p>Wire format: {@code base64url(payload) "." base64url(mac)}, where the payload is
+ * {@code version:u8, expiresAt:i64 epoch seconds, userId:i64 (-1 if absent), username:utf,
+ * email:utf, roleCount:u8, roles:utf*} ({@code utf} as written by
+ * {@link DataOutputStream#writeUTF}) and the MAC is HMAC-SHA256 over the payload truncated to
+ * {@value #MAC_LENGTH} bytes. The decoders in ticket-service and hrms-service must be kept in step.
+ */
+@Component
+public class IdentityHeaderEncoder {
+
+    public static final String HEADER = "X-User-Identity";
+
+    static final byte VERSION = 1;
+    static final int MAC_LENGTH = 16;
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+
+    @Value("${gateway.identity.secret:${jwt.secret:mySecretKey123456789012345678901234567890}}")
+    private String secret;
+
+    // Bounds how long a captured header can be replayed, independently of the token's own lifetime
+    @Value("${gateway.identity.ttl:60s}")
+    private Duration ttl;
+
+    // Mac instances are stateful; one per thread avoids re-initialising the key on every request
+    private ThreadLocal<Mac> mac;
+
+    @PostConstruct
+    void init() {
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM);
+        mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(MAC_ALGORITHM);
+                instance.init(key);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialise " + MAC_ALGORITHM, e);
+            }
+        });
+    }
+
+    public String encode(JwtPrincipal principal) {
+        byte[] payload = payload(principal);
+        byte[] signature = Arrays.copyOf(mac.get().doFinal(payload), MAC_LENGTH);
+        return BASE64.encodeToString(payload) + "." + BASE64.encodeToString(signature);
+    }
+
+    private byte[] payload(JwtPrincipal principal) {
+        Instant expiresAt = Instant.now().plus(ttl);
+        if (principal.expiresAt() != null && principal.expiresAt().isBefore(expiresAt)) {
+            expiresAt = principal.expiresAt();
+        }
+        List<String> roles = principal.roles();
+        if (roles.size() > 255) {
+            throw new IllegalArgumentException("Too many roles to encode: " + roles.size());
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeLong(expiresAt.getEpochSecond());
+            out.writeLong(principal.userId() != null ? principal.userId() : -1L);
+            out.writeUTF(principal.username() != null ? principal.username() : "");
+            out.writeUTF(principal.email() != null ? principal.email() : "");
+            out.writeByte(roles.size());
+            for (String role : roles) {
+                out.writeUTF(role);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,16 @@
+package com.microservices.gateway.util;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Immutable view of the claims the gateway forwards downstream, extracted from a token
+ * whose signature has already been verified.
+ */
+public record JwtPrincipal(Long userId, String username, String email, List<String> roles, Instant expiresAt,
+                           String tokenId, Instant issuedAt) {
+
+    public JwtPrincipal {
+        roles = roles != null ? List.copyOf(roles) : List.of();
+    }
+}
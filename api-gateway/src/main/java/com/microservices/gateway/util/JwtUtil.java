@@ -1,13 +1,23 @@
 package com.microservices.gateway.util;
 
+import com.microservices.gateway.cache.JwksKeyCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Date;
 import java.util.List;
 
 @Component
@@ -16,44 +26,74 @@ public class JwtUtil {
     @Value("${jwt.secret:mySecretKey123456789012345678901234567890}")
     private String jwtSecret;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-    }
+    // HS256 tokens are accepted until auth-service has fully moved to ES256 and they have expired
+    @Value("${gateway.jwt.accept-hmac:true}")
+    private boolean acceptHmac;
 
-    public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token);
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
-    }
+    @Autowired
+    private JwksKeyCache jwksKeys;
+
+    // Derived once; JwtParser instances are immutable and safe to share across threads
+    private SecretKey hmacKey;
+    private JwtParser jwtParser;
 
-    public Claims getClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-            .setSigningKey(getSigningKey())
-            .build()
-            .parseClaimsJws(token)
-            .getBody();
+    @PostConstruct
+    void init() {
+        hmacKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parserBuilder()
+            .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                @Override
+                public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                    return verificationKey(header);
+                }
+            })
+            .build();
     }
 
-    public String getUsernameFromToken(String token) {
-        return getClaimsFromToken(token).getSubject();
+    /**
+     * ES256 tokens are verified with the published key named by {@code kid}, so the gateway
+     * never holds auth-service's signing key.
+     */
+    private Key verificationKey(JwsHeader<?> header) {
+        String algorithm = header.getAlgorithm();
+        if (SignatureAlgorithm.ES256.getValue().equals(algorithm) && header.getKeyId() != null) {
+            Key key = jwksKeys.get(header.getKeyId());
+            if (key != null) {
+                return key;
+            }
+        } else if (SignatureAlgorithm.HS256.getValue().equals(algorithm) && acceptHmac) {
+            return hmacKey;
+        }
+        throw new SignatureException("No verification key for alg " + algorithm + " and kid " + header.getKeyId());
     }
 
-    public Long getUserIdFromToken(String token) {
-        return getClaimsFromToken(token).get("userId", Long.class);
+    /**
+     * Verifies the token signature and expiry once and extracts every claim the gateway needs.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is invalid or expired
+     * @throws IllegalArgumentException if the token is empty
+     */
+    public JwtPrincipal verify(String token) {
+        Claims claims = getClaimsFromToken(token);
+        Date expiration = claims.getExpiration();
+        Date issuedAt = claims.getIssuedAt();
+        return new JwtPrincipal(
+            claims.get("userId", Long.class),
+            claims.getSubject(),
+            claims.get("email", String.class),
+            getRoles(claims),
+            expiration != null ? expiration.toInstant() : null,
+            claims.getId(),
+            issuedAt != null ? issuedAt.toInstant() : null
+        );
     }
 
-    @SuppressWarnings("unchecked")
-    public List<String> getRolesFromToken(String token) {
-        return getClaimsFromToken(token).get("roles", List.class);
+    private Claims getClaimsFromToken(String token) {
+        return jwtParser.parseClaimsJws(token).getBody();
     }
 
-    public String getEmailFromToken(String token) {
-        return getClaimsFromToken(token).get("email", String.class);
+    @SuppressWarnings("unchecked")
+    private List<String> getRoles(Claims claims) {
+        return claims.get("roles", List.class);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,27 @@
+-- GCRA token bucket shared by all gateway replicas.
+-- KEYS[1]  bucket key
+-- ARGV[1]  emission interval in microseconds (1s / replenish rate)
+-- ARGV[2]  bucket capacity in microseconds (interval * burst capacity)
+-- Returns {allowed (0|1), remaining tokens, retry-after in microseconds}
+redis.replicate_commands()
+
+local key = KEYS[1]
+local interval = tonumber(ARGV[1])
+local capacity = tonumber(ARGV[2])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+
+local tat = tonumber(redis.call('GET', key)) or now
+if tat < now then
+    tat = now
+end
+
+local new_tat = tat + interval
+local backlog = new_tat - now
+if backlog > capacity then
+    return {0, 0, backlog - capacity}
+end
+
+redis.call('SET', key, string.format('%d', new_tat), 'PX', math.ceil(backlog / 1000))
+return {1, math.floor((capacity - backlog) / interval), 0}
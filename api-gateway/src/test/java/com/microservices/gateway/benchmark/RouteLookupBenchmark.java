@@ -0,0 +1,137 @@
+package com.microservices.gateway.benchmark;
+
+import com.microservices.gateway.route.PathRouteTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares Spring Cloud Gateway's default route lookup (every route's predicate in order) with
+ * {@link PathRouteTrie} candidate selection, for route tables of increasing size. Both sides
+ * evaluate the real {@code Path} predicates, so the difference is the number of routes tried.
+ *
+ * <p>Run with:
+ * <pre>
+ * mvn -q test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main RouteLookupBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteLookupBenchmark {
+
+    private static final int SERVICES = 20;
+    private static final int REQUESTS = 256;
+
+    @Param({"50", "500", "5000"})
+    public int routeCount;
+
+    private List<Route> routes;
+    private PathRouteTrie trie;
+    private ServerWebExchange[] exchanges;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PathRoutePredicateFactory pathFactory = new PathRoutePredicateFactory();
+        routes = new ArrayList<>(routeCount);
+        Map<String, RouteDefinition> definitions = new HashMap<>();
+        List<String> paths = new ArrayList<>(routeCount);
+
+        // Specific routes first, then one catch-all per service, mirroring application.yml
+        for (int i = 0; i < routeCount - SERVICES; i++) {
+            String base = "/api/svc" + (i % SERVICES) + "/res" + i;
+            switch (i % 4) {
+                case 0 -> addRoute(pathFactory, definitions, i, base + "/**", paths, base + "/a/b");
+                case 1 -> addRoute(pathFactory, definitions, i, base + "/{id}", paths, base + "/42");
+                case 2 -> addRoute(pathFactory, definitions, i, base + "/items/*/detail", paths, base + "/items/7/detail");
+                default -> addRoute(pathFactory, definitions, i, base, paths, base);
+            }
+        }
+        for (int s = 0; s < SERVICES; s++) {
+            String base = "/api/svc" + s;
+            addRoute(pathFactory, definitions, routeCount - SERVICES + s, base + "/**", paths, base + "/unknown/path");
+        }
+
+        trie = PathRouteTrie.build(routes, definitions);
+
+        Random random = new Random(42);
+        exchanges = new ServerWebExchange[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            String path = paths.get(random.nextInt(paths.size()));
+            exchanges[i] = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+        }
+    }
+
+    private void addRoute(PathRoutePredicateFactory pathFactory, Map<String, RouteDefinition> definitions,
+                          int order, String pattern, List<String> paths, String samplePath) {
+        String id = "route-" + order;
+        PathRoutePredicateFactory.Config config = new PathRoutePredicateFactory.Config();
+        config.setPatterns(List.of(pattern));
+        routes.add(Route.async()
+            .id(id)
+            .uri(URI.create("http://localhost:8080"))
+            .order(order)
+            .asyncPredicate(pathFactory.applyAsync(config))
+            .build());
+
+        RouteDefinition definition = new RouteDefinition();
+        definition.setId(id);
+        definition.setPredicates(List.of(new PredicateDefinition("Path=" + pattern)));
+        definitions.put(id, definition);
+        paths.add(samplePath);
+    }
+
+    @Benchmark
+    public Route sequential() {
+        return firstMatch(Flux.fromIterable(routes), nextExchange());
+    }
+
+    @Benchmark
+    public Route trie() {
+        ServerWebExchange exchange = nextExchange();
+        return firstMatch(Flux.fromIterable(trie.candidates(exchange.getRequest().getPath().pathWithinApplication())), exchange);
+    }
+
+    private ServerWebExchange nextExchange() {
+        next = (next + 1) % REQUESTS;
+        return exchanges[next];
+    }
+
+    private static Route firstMatch(Flux<Route> candidates, ServerWebExchange exchange) {
+        return candidates
+            .concatMap(route -> Mono.just(route).filterWhen(r -> r.getPredicate().apply(exchange)))
+            .next()
+            .block();
+    }
+}
@@ -0,0 +1,158 @@
+package com.microservices.gateway.benchmark;
+
+import com.microservices.gateway.ApiGatewayApplication;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load check for {@link com.microservices.gateway.filter.StreamingUploadFilter}: starts the real
+ * gateway with one upload route in front of a stub upstream that only counts bytes, sends
+ * {@code uploads} concurrent uploads of {@code sizeMb} each through it, and samples heap use
+ * while they run. With the body streamed, peak heap stays near the idle baseline however many
+ * uploads are in flight; had the gateway buffered them, 100 x 20MB would not fit in the heap
+ * this is meant to run with.
+ *
+ * <p>Client, gateway and upstream share the JVM, so the numbers are an upper bound for the
+ * gateway alone. Run with a heap well below {@code uploads * sizeMb}:
+ * <pre>
+ * mvn -q test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-Xmx512m -cp %classpath com.microservices.gateway.benchmark.UploadLoadHarness 100 20"
+ * </pre>
+ */
+public class UploadLoadHarness {
+
+    // The client queues a prefetch batch of chunks per connection before it checks writability,
+    // so large chunks here would fill direct memory on the client side, not in the gateway
+    private static final int CHUNK_BYTES = 8 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        int uploads = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int sizeMb = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        long uploadBytes = sizeMb * 1024L * 1024L;
+
+        AtomicLong upstreamBytes = new AtomicLong();
+        DisposableServer upstream = HttpServer.create()
+            .host("127.0.0.1")
+            .port(0)
+            .route(routes -> routes.post("/upload", (request, response) -> request.receive()
+                .map(ByteBuf::readableBytes)
+                .reduce(0L, Long::sum)
+                .flatMap(received -> {
+                    upstreamBytes.addAndGet(received);
+                    return response.sendString(Mono.just(Long.toString(received))).then();
+                })))
+            .bindNow();
+
+        // Command-line arguments, so they win over application.yml
+        ConfigurableApplicationContext gateway = SpringApplication.run(ApiGatewayApplication.class,
+            "--spring.main.banner-mode=off",
+            "--server.port=0",
+            "--gateway.revocation.enabled=false",
+            "--spring.cloud.gateway.routes[0].id=upload-load",
+            "--spring.cloud.gateway.routes[0].uri=http://127.0.0.1:" + upstream.port(),
+            "--spring.cloud.gateway.routes[0].predicates[0]=Path=/upload",
+            "--spring.cloud.gateway.routes[0].filters[0]=StreamingUploadFilter=" + sizeMb + "MB");
+        int gatewayPort = ((WebServerApplicationContext) gateway).getWebServer().getPort();
+
+        long complete = 0;
+        try {
+            HttpClient client = HttpClient.create(ConnectionProvider.builder("uploads").maxConnections(uploads).build())
+                .baseUrl("http://127.0.0.1:" + gatewayPort)
+                .responseTimeout(Duration.ofMinutes(5));
+            byte[] chunk = new byte[CHUNK_BYTES];
+
+            // Warm up the route, then measure from a settled heap
+            upload(client, chunk, CHUNK_BYTES).block();
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            System.gc();
+            long baseline = memory.getHeapMemoryUsage().getUsed();
+            long gcCountBefore = gcCount();
+
+            AtomicLong peakHeap = new AtomicLong();
+            AtomicLong peakDirect = new AtomicLong();
+            ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "heap-sampler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sampler.scheduleAtFixedRate(() -> {
+                peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                peakDirect.accumulateAndGet(PooledByteBufAllocator.DEFAULT.metric().usedDirectMemory(), Math::max);
+            }, 0, 20, TimeUnit.MILLISECONDS);
+
+            long start = System.nanoTime();
+            List<String> results = Flux.range(0, uploads)
+                .flatMap(i -> upload(client, chunk, uploadBytes), uploads)
+                .collectList()
+                .block();
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            sampler.shutdown();
+            sampler.awaitTermination(1, TimeUnit.SECONDS);
+            System.gc();
+            long after = memory.getHeapMemoryUsage().getUsed();
+
+            complete = results.stream().filter(result -> result.equals(Long.toString(uploadBytes))).count();
+            String oversized = upload(client, chunk, uploadBytes + 1).block();
+
+            System.out.printf("uploads: %d x %d MB in %d ms (%.0f MB/s through the gateway)%n",
+                uploads, sizeMb, elapsedMillis, uploads * (double) sizeMb * 1000 / Math.max(1, elapsedMillis));
+            System.out.printf("complete at upstream: %d/%d, upstream bytes: %d%n",
+                complete, uploads, upstreamBytes.get() - CHUNK_BYTES);
+            System.out.printf("heap used: baseline %d MB, peak %d MB, after GC %d MB (max heap %d MB)%n",
+                mb(baseline), mb(peakHeap.get()), mb(after), mb(Runtime.getRuntime().maxMemory()));
+            System.out.printf("netty pooled direct memory peak: %d MB, GCs during run: %d%n",
+                mb(peakDirect.get()), gcCount() - gcCountBefore);
+            System.out.printf("oversized upload (%d MB + 1 byte): %s%n", sizeMb, oversized);
+        } finally {
+            gateway.close();
+            upstream.disposeNow();
+        }
+        System.exit(complete == uploads ? 0 : 1);
+    }
+
+    // Generates the body chunk by chunk as the connection asks for it; the client holds no body either
+    private static Mono<String> upload(HttpClient client, byte[] chunk, long bytes) {
+        long chunks = (bytes + chunk.length - 1) / chunk.length;
+        Flux<ByteBuf> body = Flux.range(0, (int) chunks).map(i -> {
+            int length = (int) Math.min(chunk.length, bytes - (long) i * chunk.length);
+            return Unpooled.wrappedBuffer(chunk, 0, length);
+        });
+        return client.headers(headers -> headers.set("Content-Type", "application/octet-stream"))
+            .post()
+            .uri("/upload")
+            .send(body)
+            .responseSingle((response, content) -> content.asString().defaultIfEmpty("")
+                .map(text -> response.status().code() == 200 ? text : response.status().code() + " " + text));
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+            .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+            .sum();
+    }
+
+    private static long mb(long bytes) {
+        return bytes / (1024 * 1024);
+    }
+}
@@ -0,0 +1,97 @@
+package com.microservices.gateway.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedBodyCaptureTest {
+
+    private final DataBufferFactory factory = DefaultDataBufferFactory.sharedInstance;
+
+    @Test
+    void bodyWithinLimitIsHandedOverWhole() {
+        AtomicReference<byte[]> captured = new AtomicReference<>();
+        AtomicInteger overflows = new AtomicInteger();
+
+        String written = write(BoundedBodyCapture.capture(chunks("ab", "cd", "ef"), 6, factory,
+            captured::set, overflows::incrementAndGet));
+
+        assertThat(written).isEqualTo("abcdef");
+        assertThat(new String(captured.get(), StandardCharsets.UTF_8)).isEqualTo("abcdef");
+        assertThat(overflows).hasValue(0);
+    }
+
+    @Test
+    void emptyBodyIsCaptured() {
+        AtomicReference<byte[]> captured = new AtomicReference<>();
+
+        String written = write(BoundedBodyCapture.capture(Flux.empty(), 6, factory, captured::set, () -> { }));
+
+        assertThat(written).isEmpty();
+        assertThat(captured.get()).isEmpty();
+    }
+
+    @Test
+    void bodyOverLimitStreamsThroughUncaptured() {
+        AtomicReference<byte[]> captured = new AtomicReference<>();
+        AtomicInteger overflows = new AtomicInteger();
+
+        String written = write(BoundedBodyCapture.capture(chunks("ab", "cd", "ef", "gh", "ij"), 5, factory,
+            captured::set, overflows::incrementAndGet));
+
+        assertThat(written).isEqualTo("abcdefghij");
+        assertThat(captured.get()).isNull();
+        assertThat(overflows).hasValue(1);
+    }
+
+    @Test
+    void overflowIsSignalledBeforeTheRestArrives() {
+        AtomicInteger overflows = new AtomicInteger();
+        AtomicInteger overflowsSeenByLastChunk = new AtomicInteger(-1);
+        Flux<DataBuffer> body = chunks("abc", "def")
+            .concatWith(Flux.defer(() -> {
+                overflowsSeenByLastChunk.set(overflows.get());
+                return chunks("ghi");
+            }));
+
+        write(BoundedBodyCapture.capture(body, 4, factory, bytes -> { }, overflows::incrementAndGet));
+
+        assertThat(overflowsSeenByLastChunk).hasValue(1);
+    }
+
+    @Test
+    void upstreamErrorPropagatesWithoutCapturing() {
+        AtomicReference<byte[]> captured = new AtomicReference<>();
+        Flux<DataBuffer> body = chunks("ab").concatWith(Flux.error(new IllegalStateException("reset")));
+
+        assertThatThrownBy(() -> write(BoundedBodyCapture.capture(body, 6, factory, captured::set, () -> { })))
+            .hasMessageContaining("reset");
+        assertThat(captured.get()).isNull();
+    }
+
+    private Flux<DataBuffer> chunks(String... parts) {
+        return Flux.fromIterable(List.of(parts))
+            .map(part -> factory.wrap(part.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String write(Flux<DataBuffer> body) {
+        DataBuffer joined = DataBufferUtils.join(body).block();
+        if (joined == null) {
+            return "";
+        }
+        String text = joined.toString(StandardCharsets.UTF_8);
+        DataBufferUtils.release(joined);
+        return text;
+    }
+}
@@ -0,0 +1,47 @@
+package com.microservices.gateway.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachedResponseTest {
+
+    @Test
+    void perClientHeadersAreNotCaptured() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, "application/json");
+        headers.set(HttpHeaders.SET_COOKIE, "session=1");
+        headers.set("X-Cache", "MISS");
+        headers.set("X-Coalesced", "true");
+        headers.set("X-RateLimit-Limit", "20");
+        headers.set("x-ratelimit-remaining", "19");
+
+        CachedResponse cached = CachedResponse.of(HttpStatus.OK, headers, new byte[0], null, Duration.ZERO);
+
+        assertThat(cached.headers().keySet()).containsExactly(HttpHeaders.CONTENT_TYPE);
+    }
+
+    @Test
+    void replayKeepsTheClientsOwnHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-RateLimit-Remaining", "3");
+        headers.set("X-Cache", "MISS");
+        CachedResponse cached = CachedResponse.of(HttpStatus.OK, headers,
+            "{}".getBytes(StandardCharsets.UTF_8), "\"abc\"", Duration.ofMinutes(1));
+
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        response.getHeaders().set("X-RateLimit-Remaining", "17");
+        response.getHeaders().set("X-Cache", "HIT");
+        cached.writeTo(response).block();
+
+        assertThat(response.getHeaders().getFirst("X-RateLimit-Remaining")).isEqualTo("17");
+        assertThat(response.getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+        assertThat(response.getBodyAsString().block()).isEqualTo("{}");
+    }
+}
@@ -0,0 +1,135 @@
+package com.microservices.gateway.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VegasConcurrencyLimiterTest {
+
+    private static final long RTT = Duration.ofMillis(20).toNanos();
+
+    @Test
+    void acquiresUpToTheLimit() {
+        VegasConcurrencyLimiter limiter = limiter(3, 1, 100);
+
+        assertThat(limiter.tryAcquire()).isEqualTo(1);
+        assertThat(limiter.tryAcquire()).isEqualTo(2);
+        assertThat(limiter.tryAcquire()).isEqualTo(3);
+        assertThat(limiter.tryAcquire()).isEqualTo(-1);
+
+        limiter.onIgnore();
+
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+        assertThat(limiter.tryAcquire()).isEqualTo(3);
+    }
+
+    @Test
+    void initialLimitIsClampedToBounds() {
+        assertThat(limiter(500, 1, 100).getLimit()).isEqualTo(100);
+        assertThat(limiter(0, 5, 100).getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    void firstWindowOnlyLearnsTheBaseline() {
+        VegasConcurrencyLimiter limiter = limiter(10, 1, 100);
+
+        sample(limiter, RTT, 10, false);
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void growsWhileLatencyStaysAtTheBaseline() {
+        VegasConcurrencyLimiter limiter = limiter(10, 1, 100);
+        sample(limiter, RTT, 10, false);
+
+        sample(limiter, RTT, 10, false);
+
+        // Nothing queued: grow by 6 * max(1, log10(limit))
+        assertThat(limiter.getLimit()).isEqualTo(16);
+    }
+
+    @Test
+    void doesNotGrowWhenTheLimitIsNotBeingUsed() {
+        VegasConcurrencyLimiter limiter = limiter(10, 1, 100);
+        sample(limiter, RTT, 10, false);
+
+        sample(limiter, RTT, 4, false);
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void shrinksOnceRequestsQueue() {
+        VegasConcurrencyLimiter limiter = limiter(20, 1, 100);
+        sample(limiter, RTT, 20, false);
+
+        // Doubled RTT at 20 in flight: about 10 queued, well above 6 * log10(20)
+        sample(limiter, 2 * RTT, 20, false);
+
+        assertThat(limiter.getLimit()).isEqualTo(19);
+    }
+
+    @Test
+    void dropCutsTheLimitMultiplicatively() {
+        VegasConcurrencyLimiter limiter = limiter(40, 4, 100);
+
+        sample(limiter, RTT, 1, true);
+        assertThat(limiter.getLimit()).isEqualTo(36);
+
+        for (int i = 0; i < 50; i++) {
+            sample(limiter, RTT, 1, true);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void neverGrowsPastTheMaximum() {
+        VegasConcurrencyLimiter limiter = limiter(10, 1, 12);
+        sample(limiter, RTT, 10, false);
+
+        for (int i = 0; i < 5; i++) {
+            sample(limiter, RTT, limiter.getLimit(), false);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(12);
+    }
+
+    @Test
+    void limitOnlyChangesOncePerWindow() {
+        VegasConcurrencyLimiter limiter = new VegasConcurrencyLimiter(40, 4, 100, 0.9,
+            Duration.ofHours(1).toNanos(), 1);
+
+        sample(limiter, RTT, 1, true);
+        sample(limiter, RTT, 1, true);
+
+        assertThat(limiter.getLimit()).isEqualTo(40);
+    }
+
+    @Test
+    void waitsForEnoughSamplesUnlessSomethingWasDropped() {
+        VegasConcurrencyLimiter limiter = new VegasConcurrencyLimiter(10, 1, 100, 0.9, 0, 3);
+        sample(limiter, RTT, 10, false);
+        sample(limiter, RTT, 10, false);
+        sample(limiter, RTT, 10, false);
+
+        sample(limiter, RTT, 10, false);
+        sample(limiter, RTT, 10, false);
+        assertThat(limiter.getLimit()).isEqualTo(10);
+
+        sample(limiter, RTT, 10, true);
+        assertThat(limiter.getLimit()).isEqualTo(9);
+    }
+
+    // Window of zero length: every sample that meets the minimum closes a window
+    private static VegasConcurrencyLimiter limiter(int initialLimit, int minLimit, int maxLimit) {
+        return new VegasConcurrencyLimiter(initialLimit, minLimit, maxLimit, 0.9, 0, 1);
+    }
+
+    private static void sample(VegasConcurrencyLimiter limiter, long rttNanos, int inFlightAtStart, boolean dropped) {
+        limiter.tryAcquire();
+        limiter.onSample(rttNanos, inFlightAtStart, dropped);
+    }
+}
@@ -0,0 +1,120 @@
+package com.microservices.gateway.filter;
+
+import com.microservices.gateway.cache.VerifiedTokenCache;
+import com.microservices.gateway.metrics.RouteMetrics;
+import com.microservices.gateway.revocation.TokenRevocationList;
+import com.microservices.gateway.util.IdentityHeaderEncoder;
+import com.microservices.gateway.util.JwtPrincipal;
+import com.microservices.gateway.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtAuthenticationFilterTest {
+
+    private static final JwtPrincipal PRINCIPAL = new JwtPrincipal(7L, "alice", "alice@example.com",
+        List.of("USER"), Instant.now().plusSeconds(600), "jti-1", Instant.now());
+
+    private final Scheduler verificationScheduler = Schedulers.newSingle("jwt-verify");
+    private final JwtUtil jwtUtil = mock(JwtUtil.class);
+    private final TokenRevocationList revocationList = mock(TokenRevocationList.class);
+
+    @AfterEach
+    void disposeScheduler() {
+        verificationScheduler.dispose();
+    }
+
+    @Test
+    void offloadedVerificationHandsTheChainBackOffThePool() {
+        AtomicReference<String> verifiedOn = new AtomicReference<>();
+        AtomicReference<String> chainRanOn = new AtomicReference<>();
+        when(jwtUtil.verify("token")).thenAnswer(invocation -> {
+            verifiedOn.set(Thread.currentThread().getName());
+            return PRINCIPAL;
+        });
+
+        filter(true).filter(exchange("Bearer token"), exchange -> {
+            chainRanOn.set(Thread.currentThread().getName());
+            return Mono.empty();
+        }).block();
+
+        assertThat(verifiedOn.get()).startsWith("jwt-verify");
+        assertThat(chainRanOn.get()).isNotNull().doesNotStartWith("jwt-verify");
+    }
+
+    @Test
+    void verifiedRequestCarriesTheIdentityHeader() {
+        when(jwtUtil.verify("token")).thenReturn(PRINCIPAL);
+        AtomicReference<String> identity = new AtomicReference<>();
+
+        filter(false).filter(exchange("Bearer token"), exchange -> {
+            identity.set(exchange.getRequest().getHeaders().getFirst(IdentityHeaderEncoder.HEADER));
+            return Mono.empty();
+        }).block();
+
+        assertThat(identity.get()).isEqualTo("signed:alice");
+    }
+
+    @Test
+    void revokedTokenIsRejected() {
+        when(jwtUtil.verify("token")).thenReturn(PRINCIPAL);
+        when(revocationList.isRevoked(PRINCIPAL)).thenReturn(true);
+        MockServerWebExchange exchange = exchange("Bearer token");
+
+        filter(true).filter(exchange, e -> Mono.error(new AssertionError("chain must not run"))).block();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void missingHeaderIsRejected() {
+        MockServerWebExchange exchange = exchange(null);
+
+        filter(false).filter(exchange, e -> Mono.error(new AssertionError("chain must not run"))).block();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    private GatewayFilter filter(boolean offload) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        IdentityHeaderEncoder identityHeaderEncoder = mock(IdentityHeaderEncoder.class);
+        when(identityHeaderEncoder.encode(any())).thenAnswer(invocation ->
+            "signed:" + invocation.<JwtPrincipal>getArgument(0).username());
+
+        JwtAuthenticationFilter factory = new JwtAuthenticationFilter(meterRegistry);
+        ReflectionTestUtils.setField(factory, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(factory, "identityHeaderEncoder", identityHeaderEncoder);
+        ReflectionTestUtils.setField(factory, "tokenCache", mock(VerifiedTokenCache.class));
+        ReflectionTestUtils.setField(factory, "revocationList", revocationList);
+        ReflectionTestUtils.setField(factory, "routeMetrics", new RouteMetrics(meterRegistry));
+        ReflectionTestUtils.setField(factory, "verificationScheduler", verificationScheduler);
+        ReflectionTestUtils.setField(factory, "offloadVerification", offload);
+        return factory.apply(new JwtAuthenticationFilter.Config());
+    }
+
+    private static MockServerWebExchange exchange(String authorization) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/tickets");
+        if (authorization != null) {
+            request.header(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        return MockServerWebExchange.from(request);
+    }
+}
@@ -0,0 +1,133 @@
+package com.microservices.gateway.filter;
+
+import com.microservices.gateway.ratelimit.RateLimitDecision;
+import com.microservices.gateway.ratelimit.TokenBucketStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    @Test
+    void allowedRequestCarriesQuotaHeaders() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/me"));
+        AtomicBoolean forwarded = new AtomicBoolean();
+
+        filter((key, rate, burst) -> Mono.just(RateLimitDecision.allow(12)))
+            .filter(exchange, e -> {
+                forwarded.set(true);
+                return Mono.empty();
+            })
+            .block();
+
+        assertThat(forwarded).isTrue();
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-RateLimit-Limit")).isEqualTo("20");
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-RateLimit-Remaining")).isEqualTo("12");
+    }
+
+    @Test
+    void deniedRequestGets429WithRetryAfterRoundedUp() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/me"));
+        AtomicBoolean forwarded = new AtomicBoolean();
+
+        filter((key, rate, burst) -> Mono.just(RateLimitDecision.deny(1001)))
+            .filter(exchange, e -> {
+                forwarded.set(true);
+                return Mono.empty();
+            })
+            .block();
+
+        assertThat(forwarded).isFalse();
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-RateLimit-Remaining")).isEqualTo("0");
+    }
+
+    @Test
+    void anonymousRequestsAreKeyedByClientAddress() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/products")
+            .remoteAddress(new InetSocketAddress("10.1.2.3", 50000))
+            .header("X-Forwarded-For", "1.1.1.1"));
+        StringBuilder key = new StringBuilder();
+
+        filter((k, rate, burst) -> {
+            key.append(k);
+            return Mono.just(RateLimitDecision.allow(1));
+        }).filter(exchange, e -> Mono.empty()).block();
+
+        // X-Forwarded-For is ignored unless trust-forwarded-for is set
+        assertThat(key).hasToString("default:ip:10.1.2.3");
+    }
+
+    @Test
+    void trustedForwardedForIsReadFromTheRightPastTheTrustedProxies() {
+        // The client sent "6.6.6.6, 7.7.7.7"; the two trusted proxies appended 203.0.113.9 and 10.0.0.5
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/auth/login")
+            .remoteAddress(new InetSocketAddress("10.0.0.6", 50000))
+            .header("X-Forwarded-For", "6.6.6.6, 7.7.7.7, 203.0.113.9", "10.0.0.5"));
+        StringBuilder key = new StringBuilder();
+
+        filter((k, rate, burst) -> {
+            key.append(k);
+            return Mono.just(RateLimitDecision.allow(1));
+        }, true, 2).filter(exchange, e -> Mono.empty()).block();
+
+        assertThat(key).hasToString("default:ip:203.0.113.9");
+    }
+
+    @Test
+    void spoofedForwardedForCannotChooseTheBucket() {
+        StringBuilder keys = new StringBuilder();
+        GatewayFilter filter = filter((k, rate, burst) -> {
+            keys.append(k).append(';');
+            return Mono.just(RateLimitDecision.allow(1));
+        }, true, 1);
+
+        for (String spoofed : new String[] {"1.1.1.1", "2.2.2.2"}) {
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/auth/login")
+                .remoteAddress(new InetSocketAddress("10.0.0.5", 50000))
+                .header("X-Forwarded-For", spoofed + ", 198.51.100.7"));
+            filter.filter(exchange, e -> Mono.empty()).block();
+        }
+
+        // Only the entry the proxy appended is used, whatever the client put in front of it
+        assertThat(keys).hasToString("default:ip:198.51.100.7;default:ip:198.51.100.7;");
+    }
+
+    @Test
+    void forwardedForShorterThanTheTrustedHopsFallsBackToTheRemoteAddress() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/auth/login")
+            .remoteAddress(new InetSocketAddress("10.0.0.5", 50000))
+            .header("X-Forwarded-For", "1.1.1.1"));
+        StringBuilder key = new StringBuilder();
+
+        filter((k, rate, burst) -> {
+            key.append(k);
+            return Mono.just(RateLimitDecision.allow(1));
+        }, true, 2).filter(exchange, e -> Mono.empty()).block();
+
+        assertThat(key).hasToString("default:ip:10.0.0.5");
+    }
+
+    private static GatewayFilter filter(TokenBucketStore store) {
+        return filter(store, false, 1);
+    }
+
+    private static GatewayFilter filter(TokenBucketStore store, boolean trustForwardedFor, int trustedProxyHops) {
+        RateLimitFilter factory = new RateLimitFilter();
+        ReflectionTestUtils.setField(factory, "tokenBucketStore", store);
+        ReflectionTestUtils.setField(factory, "trustForwardedFor", trustForwardedFor);
+        ReflectionTestUtils.setField(factory, "trustedProxyHops", trustedProxyHops);
+        return factory.apply(new RateLimitFilter.Config());
+    }
+}
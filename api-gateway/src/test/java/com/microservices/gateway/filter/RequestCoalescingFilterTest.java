@@ -0,0 +1,100 @@
+package com.microservices.gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestCoalescingFilterTest {
+
+    private final GatewayFilter filter = filter();
+
+    @Test
+    void identicalRequestsShareTheLeadersResponse() {
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        Sinks.Empty<Void> release = Sinks.empty();
+
+        MockServerWebExchange leader = exchange("gzip", "application/json");
+        MockServerWebExchange waiter = exchange("gzip", "application/json");
+        filter.filter(leader, e -> {
+            upstreamCalls.incrementAndGet();
+            return release.asMono().then(respond(e, "shared"));
+        }).subscribe();
+        Mono<Void> waiting = filter.filter(waiter, e -> {
+            upstreamCalls.incrementAndGet();
+            return respond(e, "own");
+        });
+
+        release.tryEmitEmpty();
+        waiting.block();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(waiter.getResponse().getHeaders().getFirst("X-Coalesced")).isEqualTo("true");
+        assertThat(waiter.getResponse().getBodyAsString().block()).isEqualTo("shared");
+    }
+
+    @Test
+    void requestsNegotiatingDifferentRepresentationsAreNotMerged() {
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        Sinks.Empty<Void> release = Sinks.empty();
+
+        filter.filter(exchange("gzip", "application/json"), e -> {
+            upstreamCalls.incrementAndGet();
+            return release.asMono().then(respond(e, "gzip body"));
+        }).subscribe();
+
+        MockServerWebExchange identity = exchange(null, "application/json");
+        MockServerWebExchange xml = exchange("gzip", "application/xml");
+        // Both complete while the leader is still in flight: a merged request would wait for it
+        filter.filter(identity, e -> {
+            upstreamCalls.incrementAndGet();
+            return respond(e, "plain body");
+        }).block(Duration.ofSeconds(5));
+        filter.filter(xml, e -> {
+            upstreamCalls.incrementAndGet();
+            return respond(e, "xml body");
+        }).block(Duration.ofSeconds(5));
+        release.tryEmitEmpty();
+
+        // Neither waited for, nor was given, the in-flight gzip JSON response
+        assertThat(upstreamCalls).hasValue(3);
+        assertThat(identity.getResponse().getBodyAsString().block()).isEqualTo("plain body");
+        assertThat(xml.getResponse().getBodyAsString().block()).isEqualTo("xml body");
+    }
+
+    private static GatewayFilter filter() {
+        RequestCoalescingFilter.Config config = new RequestCoalescingFilter.Config();
+        config.setMaxWait(Duration.ofMinutes(1));
+        return new RequestCoalescingFilter(new SimpleMeterRegistry(), 1000, 1024 * 1024).apply(config);
+    }
+
+    private static MockServerWebExchange exchange(String acceptEncoding, String accept) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/products/1")
+            .header(HttpHeaders.ACCEPT, accept);
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    private static Mono<Void> respond(ServerWebExchange exchange, String body) {
+        return Mono.defer(() -> {
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            return exchange.getResponse().writeWith(Mono.just(
+                DefaultDataBufferFactory.sharedInstance.wrap(body.getBytes(StandardCharsets.UTF_8))));
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package com.microservices.gateway.filter;
+
+import com.microservices.gateway.metrics.RouteMetrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteMetricsFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RouteMetricsFilter filter = new RouteMetricsFilter(new RouteMetrics(registry));
+
+    @Test
+    void completedRequestIsCountedByStatusClass() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/me"));
+
+        filter.filter(exchange, e -> {
+            e.getResponse().setStatusCode(HttpStatus.NOT_FOUND);
+            return Mono.empty();
+        }).block();
+
+        assertThat(requests("4xx").count()).isEqualTo(1);
+        assertThat(requests("CANCELLED").count()).isZero();
+    }
+
+    @Test
+    void cancelledRequestIsTimedAndLeavesNothingInFlight() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/me"));
+
+        // The client disconnects while the upstream has not answered yet
+        Disposable request = filter.filter(exchange, e -> Mono.never()).subscribe();
+        request.dispose();
+
+        assertThat(requests("CANCELLED").count()).isEqualTo(1);
+        assertThat(registry.get("gateway.route.in.flight").tag("route", "unknown").gauge().value()).isZero();
+    }
+
+    private Timer requests(String status) {
+        return registry.get("gateway.route.requests").tag("route", "unknown").tag("status", status).timer();
+    }
+}
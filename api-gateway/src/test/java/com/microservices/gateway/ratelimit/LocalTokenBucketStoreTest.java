@@ -0,0 +1,100 @@
+package com.microservices.gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalTokenBucketStoreTest {
+
+    private static final long MILLIS = 1_000_000L;
+    private static final long NOW = 1_000_000 * MILLIS;
+
+    @Test
+    void fullBucketAllowsExactlyTheBurst() {
+        AtomicLong bucket = new AtomicLong(Long.MIN_VALUE);
+
+        for (int i = 4; i >= 0; i--) {
+            RateLimitDecision decision = LocalTokenBucketStore.tryConsume(bucket, 10, 5, NOW);
+            assertThat(decision.allowed()).isTrue();
+            assertThat(decision.remaining()).isEqualTo(i);
+        }
+
+        RateLimitDecision denied = LocalTokenBucketStore.tryConsume(bucket, 10, 5, NOW);
+        assertThat(denied.allowed()).isFalse();
+        assertThat(denied.remaining()).isZero();
+    }
+
+    @Test
+    void deniedRequestDoesNotTakeAToken() {
+        AtomicLong bucket = new AtomicLong(Long.MIN_VALUE);
+        exhaust(bucket, 10, 5, NOW);
+        long tat = bucket.get();
+
+        LocalTokenBucketStore.tryConsume(bucket, 10, 5, NOW);
+        LocalTokenBucketStore.tryConsume(bucket, 10, 5, NOW);
+
+        assertThat(bucket.get()).isEqualTo(tat);
+    }
+
+    @Test
+    void retryAfterIsTheTimeUntilTheNextToken() {
+        AtomicLong bucket = new AtomicLong(Long.MIN_VALUE);
+        exhaust(bucket, 10, 5, NOW);
+
+        // One token every 100 ms; 40 ms have passed since the bucket ran dry
+        RateLimitDecision denied = LocalTokenBucketStore.tryConsume(bucket, 10, 5, NOW + 40 * MILLIS);
+
+        assertThat(denied.retryAfterMillis()).isEqualTo(61);
+        assertThat(LocalTokenBucketStore.tryConsume(bucket, 10, 5, NOW + 40 * MILLIS + 61 * MILLIS).allowed())
+            .isTrue();
+    }
+
+    @Test
+    void tokensReplenishAtTheConfiguredRate() {
+        AtomicLong bucket = new AtomicLong(Long.MIN_VALUE);
+        exhaust(bucket, 10, 5, NOW);
+
+        assertThat(LocalTokenBucketStore.tryConsume(bucket, 10, 5, NOW + 99 * MILLIS).allowed()).isFalse();
+
+        RateLimitDecision refilled = LocalTokenBucketStore.tryConsume(bucket, 10, 5, NOW + 100 * MILLIS);
+        assertThat(refilled.allowed()).isTrue();
+        assertThat(refilled.remaining()).isZero();
+    }
+
+    @Test
+    void idleBucketRefillsOnlyUpToTheBurst() {
+        AtomicLong bucket = new AtomicLong(Long.MIN_VALUE);
+        exhaust(bucket, 10, 5, NOW);
+
+        long later = NOW + Duration.ofMinutes(10).toNanos();
+        assertThat(exhaust(bucket, 10, 5, later)).isEqualTo(5);
+    }
+
+    @Test
+    void storeKeepsOneBucketPerKey() {
+        LocalTokenBucketStore store = new LocalTokenBucketStore();
+        ReflectionTestUtils.setField(store, "maxKeys", 100L);
+        ReflectionTestUtils.setField(store, "idleExpiry", Duration.ofMinutes(10));
+        store.init();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(store.tryConsume("route:user:1", 1, 3).block().allowed()).isTrue();
+        }
+
+        assertThat(store.tryConsume("route:user:1", 1, 3).block().allowed()).isFalse();
+        assertThat(store.tryConsume("route:user:2", 1, 3).block().allowed()).isTrue();
+    }
+
+    // Takes tokens until denied and returns how many were allowed
+    private static int exhaust(AtomicLong bucket, int replenishRate, int burstCapacity, long now) {
+        int allowed = 0;
+        while (LocalTokenBucketStore.tryConsume(bucket, replenishRate, burstCapacity, now).allowed()) {
+            allowed++;
+        }
+        return allowed;
+    }
+}
@@ -0,0 +1,62 @@
+package com.microservices.gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RedisTokenBucketStoreTest {
+
+    private final ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+    private final RedisTokenBucketStore store = new RedisTokenBucketStore(redisTemplate);
+
+    @Test
+    void unreachableRedisAllowsTheRequest() {
+        when(redisTemplate.execute(script(), anyList(), anyList()))
+            .thenReturn(Flux.error(new RedisConnectionFailureException("Connection refused")));
+
+        RateLimitDecision decision = store.tryConsume("route:ip:10.0.0.1", 10, 20).block();
+
+        assertThat(decision.allowed()).isTrue();
+        assertThat(decision.remaining()).isEqualTo(20);
+    }
+
+    @Test
+    void scriptResultIsTranslated() {
+        when(redisTemplate.execute(script(), eq(List.of("gateway:rate-limit:a")), anyList()))
+            .thenReturn(Flux.just(List.of(1L, 7L, 0L)));
+        when(redisTemplate.execute(script(), eq(List.of("gateway:rate-limit:b")), anyList()))
+            .thenReturn(Flux.just(List.of(0L, 0L, 2_500_000L)));
+
+        RateLimitDecision allowed = store.tryConsume("a", 10, 20).block();
+        RateLimitDecision denied = store.tryConsume("b", 10, 20).block();
+
+        assertThat(allowed.allowed()).isTrue();
+        assertThat(allowed.remaining()).isEqualTo(7);
+        // The script reports microseconds; the decision rounds up to the next millisecond
+        assertThat(denied.allowed()).isFalse();
+        assertThat(denied.retryAfterMillis()).isEqualTo(2501);
+    }
+
+    @Test
+    void bucketParametersArePassedInMicroseconds() {
+        when(redisTemplate.execute(script(), anyList(), eq(List.of("100000", "2000000"))))
+            .thenReturn(Flux.just(List.of(1L, 19L, 0L)));
+
+        assertThat(store.tryConsume("c", 10, 20).block().remaining()).isEqualTo(19);
+    }
+
+    private static RedisScript<List<Long>> script() {
+        return any();
+    }
+}
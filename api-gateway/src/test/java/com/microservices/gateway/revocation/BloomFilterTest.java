@@ -0,0 +1,73 @@
+package com.microservices.gateway.revocation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void everyAddedValueIsFound() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        String[] values = new String[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = UUID.randomUUID().toString();
+            filter.put(values[i]);
+        }
+
+        for (String value : values) {
+            assertThat(filter.mightContain(value)).as(value).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheTargetAtCapacity() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("revoked-" + i);
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("valid-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat((double) falsePositives / probes).isLessThan(0.02);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+
+        assertThat(filter.mightContain("")).isFalse();
+        assertThat(filter.mightContain("jti-1")).isFalse();
+    }
+
+    @Test
+    void reportsFullOnceCapacityIsReached() {
+        BloomFilter filter = new BloomFilter(3, 0.01);
+        filter.put("a");
+        filter.put("b");
+        assertThat(filter.isFull()).isFalse();
+
+        filter.put("c");
+
+        assertThat(filter.isFull()).isTrue();
+        assertThat(filter.capacity()).isEqualTo(3);
+    }
+
+    @Test
+    void zeroExpectedInsertionsStillGivesAUsableFilter() {
+        BloomFilter filter = new BloomFilter(0, 0.01);
+        filter.put("only");
+
+        assertThat(filter.mightContain("only")).isTrue();
+        assertThat(filter.isFull()).isTrue();
+    }
+
+}
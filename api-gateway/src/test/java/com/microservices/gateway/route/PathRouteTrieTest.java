@@ -0,0 +1,198 @@
+package com.microservices.gateway.route;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.cloud.gateway.handler.AsyncPredicate;
+import org.springframework.cloud.gateway.handler.predicate.HostRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.MethodRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PathRouteTrieTest {
+
+    private static final List<String> PATHS = List.of(
+        "/", "/api", "/api/",
+        "/api/auth/login", "/api/auth/login/", "/api/auth/logout", "/api/auth",
+        "/api/users", "/api/users/", "/api/users/42", "/api/users/42/", "/api/users/42/roles",
+        "/api/orders", "/api/orders/", "/api/orders/7", "/api/orders/abc", "/api/orders/7/", "/api/orders/7/items", "/api/orders/abc/items", "/api/orders/7/items/",
+        "/api/products/", "/api/products/ABC-12", "/api/products/abc-12", "/api/products/ABC-12/",
+        "/api/files", "/api/files/", "/api/files/img-1.png", "/api/files/img-.png", "/api/files/img-1.jpg", "/api/files/a/b/c",
+        "/docs", "/docs/", "/docs/guide", "/docs/guide/intro",
+        "/api/tickets/7/comments", "/api/tickets/7/comments/", "/api/tickets/7",
+        "/api/strict", "/api/strict/",
+        "/api/a", "/api/a/", "/api/a/x/y", "/api/b/9", "/api/b/9/x", "/api/b", "/api/b/",
+        "/api/v1/status", "/api/v12/status", "/api/any/", "/api/any/x", "/api/any//",
+        "/api/users%2F42", "/api//users/42", "//api/users/42", "/docs//x", "/API/users/42", "/other", "/other/x");
+
+    private final PathRoutePredicateFactory pathFactory = new PathRoutePredicateFactory();
+    private final List<Route> routes = new ArrayList<>();
+    private final Map<String, RouteDefinition> definitions = new HashMap<>();
+
+    @Test
+    void candidatesContainEveryRouteTheDefaultLookupWouldMatch() {
+        path("literal", "/api/auth/login");
+        path("star", "/api/users/*");
+        path("variable", "/api/orders/{id}");
+        path("regex", "/api/orders/{id:[0-9]+}/items");
+        path("regex-with-braces", "/api/products/{sku:[A-Z]{3}-\\d+}");
+        path("partial-wildcard", "/api/files/img-*.png");
+        path("single-char", "/api/v?/status");
+        path("regex-any", "/api/any/{rest:.*}");
+        path("double-star", "/docs/**");
+        path("capture-rest", "/api/files/{*path}");
+        path("trailing-slash-pattern", "/api/tickets/{id}/comments/");
+        strictPath("no-trailing-slash", "/api/strict");
+        path("multi-pattern", "/api/a/**", "/api/b/{id}");
+        pathAndMethod("path-and-method", "/api/users/**", HttpMethod.GET);
+        hostOnly("host-only", "example.com");
+        path("catch-all", "/api/**");
+
+        PathRouteTrie trie = PathRouteTrie.build(routes, definitions);
+
+        for (String path : PATHS) {
+            ServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+            List<Route> candidates = trie.candidates(exchange.getRequest().getPath().pathWithinApplication());
+            List<String> matching = matchingRouteIds(routes, exchange);
+
+            assertThat(ids(candidates)).as("candidates for %s", path).containsAll(matching);
+            assertThat(ids(candidates)).as("candidates for %s", path).isSubsetOf(ids(routes));
+            // Candidates keep route order, so the first match is the one the default lookup picks
+            assertThat(matchingRouteIds(candidates, exchange)).as("matches for %s", path).isEqualTo(matching);
+        }
+    }
+
+    @Test
+    void bareRestPrefixIsACandidate() {
+        path("double-star", "/docs/**");
+        path("capture-rest", "/files/{*path}");
+
+        PathRouteTrie trie = PathRouteTrie.build(routes, definitions);
+
+        assertThat(ids(trie.candidates(pathOf("/docs")))).containsExactly("double-star");
+        assertThat(ids(trie.candidates(pathOf("/files")))).containsExactly("capture-rest");
+        assertThat(trie.candidates(pathOf("/doc"))).isEmpty();
+    }
+
+    @Test
+    void routesWithoutAPathPredicateAreAlwaysCandidates() {
+        hostOnly("host-only", "example.com");
+        path("literal", "/api/auth/login");
+
+        PathRouteTrie trie = PathRouteTrie.build(routes, definitions);
+
+        assertThat(ids(trie.candidates(pathOf("/anything")))).containsExactly("host-only");
+        assertThat(ids(trie.candidates(pathOf("/api/auth/login")))).containsExactly("host-only", "literal");
+    }
+
+    @Test
+    void reportsPatternsAnEarlierPathOnlyRouteShadows() {
+        path("projects", "/api/projects/**");
+        path("project-comments", "/api/projects/comments/**");
+        pathAndMethod("users-get", "/api/users/**", HttpMethod.GET);
+        path("users", "/api/users/{id}");
+
+        List<String> shadowed = PathRouteTrie.build(routes, definitions).shadowedPatterns();
+
+        // users-get also checks the method, so it does not make users unreachable
+        assertThat(shadowed).singleElement().asString()
+            .contains("/api/projects/comments/**", "'project-comments'", "'projects'");
+    }
+
+    @Test
+    void configuredRoutesShadowNothing() throws Exception {
+        List<PropertySource<?>> sources = new YamlPropertySourceLoader()
+            .load("application.yml", new ClassPathResource("application.yml"));
+        List<RouteDefinition> configured = new Binder(ConfigurationPropertySources.from(sources))
+            .bind("spring.cloud.gateway.routes", Bindable.listOf(RouteDefinition.class))
+            .get();
+
+        configured.stream()
+            .sorted(Comparator.comparingInt(RouteDefinition::getOrder))
+            .forEach(definition -> add(definition.getId(), exchange -> Mono.just(true), definition.getPredicates()));
+
+        assertThat(PathRouteTrie.build(routes, definitions).shadowedPatterns()).isEmpty();
+    }
+
+    private void path(String id, String... patterns) {
+        PathRoutePredicateFactory.Config config = new PathRoutePredicateFactory.Config();
+        config.setPatterns(List.of(patterns));
+        add(id, pathFactory.applyAsync(config), List.of(new PredicateDefinition("Path=" + String.join(",", patterns))));
+    }
+
+    private void strictPath(String id, String pattern) {
+        PathRoutePredicateFactory.Config config = new PathRoutePredicateFactory.Config();
+        config.setPatterns(List.of(pattern));
+        config.setMatchTrailingSlash(false);
+        add(id, pathFactory.applyAsync(config), List.of(new PredicateDefinition("Path=" + pattern + ",false")));
+    }
+
+    private void pathAndMethod(String id, String pattern, HttpMethod method) {
+        PathRoutePredicateFactory.Config pathConfig = new PathRoutePredicateFactory.Config();
+        pathConfig.setPatterns(List.of(pattern));
+        MethodRoutePredicateFactory.Config methodConfig = new MethodRoutePredicateFactory.Config();
+        methodConfig.setMethods(method);
+        AsyncPredicate<ServerWebExchange> predicate = pathFactory.applyAsync(pathConfig)
+            .and(new MethodRoutePredicateFactory().applyAsync(methodConfig));
+        add(id, predicate, List.of(new PredicateDefinition("Path=" + pattern),
+            new PredicateDefinition("Method=" + method.name())));
+    }
+
+    private void hostOnly(String id, String host) {
+        HostRoutePredicateFactory.Config config = new HostRoutePredicateFactory.Config();
+        config.setPatterns(List.of(host));
+        add(id, new HostRoutePredicateFactory().applyAsync(config), List.of(new PredicateDefinition("Host=" + host)));
+    }
+
+    private void add(String id, AsyncPredicate<ServerWebExchange> predicate, List<PredicateDefinition> predicates) {
+        routes.add(Route.async()
+            .id(id)
+            .uri(URI.create("http://localhost:8080"))
+            .order(routes.size())
+            .asyncPredicate(predicate)
+            .build());
+        RouteDefinition definition = new RouteDefinition();
+        definition.setId(id);
+        definition.setPredicates(predicates);
+        definitions.put(id, definition);
+    }
+
+    private static List<String> matchingRouteIds(List<Route> routes, ServerWebExchange exchange) {
+        List<String> matching = new ArrayList<>();
+        for (Route route : routes) {
+            if (Boolean.TRUE.equals(Mono.from(route.getPredicate().apply(exchange)).block())) {
+                matching.add(route.getId());
+            }
+        }
+        return matching;
+    }
+
+    private static List<String> ids(List<Route> routes) {
+        return routes.stream().map(Route::getId).toList();
+    }
+
+    private static PathContainer pathOf(String path) {
+        return MockServerHttpRequest.get(path).build().getPath().pathWithinApplication();
+    }
+}
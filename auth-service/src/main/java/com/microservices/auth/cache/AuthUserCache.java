@@ -0,0 +1,78 @@
+package com.microservices.auth.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microservices.auth.entity.User;
+import com.microservices.auth.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Read-through cache of {@link AuthUserSnapshot}s by username, so refreshing a token does not
+ * join users, user_roles and roles on every call. This service's own writes invalidate or
+ * replace entries; changes made to the database by anything else show up within {@code ttl}.
+ */
+@Component
+public class AuthUserCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.user-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth.user-cache.max-size:10000}")
+    private long maxSize;
+
+    // Upper bound on how long a deactivation or role change made outside this service goes unnoticed
+    @Value("${auth.user-cache.ttl:5m}")
+    private Duration ttl;
+
+    private Cache<String, AuthUserSnapshot> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth-users");
+    }
+
+    /**
+     * Cached snapshot, loaded from the database on a miss. Unknown users are not cached.
+     */
+    public Optional<AuthUserSnapshot> get(String username) {
+        if (!enabled) {
+            return userRepository.findByUsername(username).map(AuthUserSnapshot::of);
+        }
+        return Optional.ofNullable(cache.get(username,
+                key -> userRepository.findByUsername(key).map(AuthUserSnapshot::of).orElse(null)));
+    }
+
+    /**
+     * Replaces the entry with the state of an entity that was just loaded or saved.
+     */
+    public AuthUserSnapshot put(User user) {
+        AuthUserSnapshot snapshot = AuthUserSnapshot.of(user);
+        if (enabled) {
+            cache.put(snapshot.username(), snapshot);
+        }
+        return snapshot;
+    }
+
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+}
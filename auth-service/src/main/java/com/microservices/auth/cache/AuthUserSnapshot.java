@@ -0,0 +1,27 @@
+package com.microservices.auth.cache;
+
+import com.microservices.auth.entity.Role;
+import com.microservices.auth.entity.User;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable view of the parts of a {@link User} that issuing tokens depends on. Nothing derived
+ * from the password is kept.
+ */
+public record AuthUserSnapshot(Long id, String username, String email, boolean active,
+                               Set<String> roleNames) {
+
+    public AuthUserSnapshot {
+        roleNames = roleNames != null ? Set.copyOf(roleNames) : Set.of();
+    }
+
+    public static AuthUserSnapshot of(User user) {
+        Set<String> roleNames = user.getRoles().stream()
+                .map(Role::getName)
+                .collect(Collectors.toSet());
+        return new AuthUserSnapshot(user.getId(), user.getUsername(), user.getEmail(),
+                Boolean.TRUE.equals(user.getIsActive()), roleNames);
+    }
+}
@@ -1,5 +1,6 @@
 package com.microservices.auth.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -18,9 +19,13 @@ import java.util.Arrays;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    // Raising the cost rehashes each user's password on their next successful login
+    @Value("${auth.password-hashing.bcrypt-strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -31,9 +36,12 @@ public class SecurityConfig {
             .authorizeHttpRequests(authz -> authz
                 .requestMatchers("/api/auth/login", "/api/auth/register", "/api/auth/refresh").permitAll()
                 .requestMatchers("/api/auth/validate").permitAll() // For API Gateway validation
+                .requestMatchers("/api/auth/.well-known/jwks.json").permitAll() // Public verification keys
                 .requestMatchers("/api/auth/health").permitAll() // Health check endpoint
+                .requestMatchers("/actuator/health/**", "/actuator/info", "/actuator/metrics/**", "/actuator/prometheus").permitAll() // Monitoring
                 .requestMatchers("/api/auth/logout", "/api/auth/logout-all").permitAll() // Logout endpoints
                 .requestMatchers("/api/auth/sessions/**").permitAll() // Session management
+                .requestMatchers("/api/auth/admin/**").permitAll() // Admin APIs; the controllers require an ADMIN access token
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html", "/v3/api-docs").permitAll() // Swagger UI
                 .anyRequest().authenticated()
             );
@@ -3,6 +3,9 @@ package com.microservices.auth.controller;
 import com.microservices.auth.dto.AuthResponse;
 import com.microservices.auth.dto.LoginRequest;
 import com.microservices.auth.dto.RegisterRequest;
+import com.microservices.auth.security.LoginThrottledException;
+import com.microservices.auth.security.PasswordHashingRejectedException;
+import com.microservices.auth.security.VerifiedToken;
 import com.microservices.auth.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -14,13 +17,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Optional;
 import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
@@ -29,6 +33,8 @@ import jakarta.servlet.http.HttpServletRequest;
 @Tag(name = "Authentication", description = "APIs for user authentication, registration, and JWT token management")
 public class AuthController {
 
+    private static final int MAX_SESSIONS_PAGE_SIZE = 100;
+
     @Autowired
     private AuthService authService;
 
@@ -52,6 +58,18 @@ public class AuthController {
                 {
                   "error": "Invalid credentials"
                 }
+                """))),
+        @ApiResponse(responseCode = "429", description = "Too many recent failed logins for this username or address; retry after the Retry-After delay",
+            content = @Content(schema = @Schema(example = """
+                {
+                  "error": "Too many failed login attempts; try again later"
+                }
+                """))),
+        @ApiResponse(responseCode = "503", description = "Too many concurrent logins and registrations; retry after the Retry-After delay",
+            content = @Content(schema = @Schema(example = """
+                {
+                  "error": "Too many concurrent authentication requests"
+                }
                 """)))
     })
     @PostMapping("/login")
@@ -67,8 +85,18 @@ public class AuthController {
             HttpServletRequest request) {
         try {
             String deviceInfo = getDeviceInfo(request);
-            AuthResponse authResponse = authService.login(loginRequest, deviceInfo);
+            AuthResponse authResponse = authService.login(loginRequest, deviceInfo, getClientIp(request));
             return ResponseEntity.ok(authResponse);
+        } catch (LoginThrottledException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            // Round up so a client that waits exactly Retry-After is not throttled again
+            long retryAfterSeconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                    .body(error);
+        } catch (PasswordHashingRejectedException e) {
+            return serviceBusy(e);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -85,6 +113,12 @@ public class AuthController {
                 {
                   "error": "Username is already taken"
                 }
+                """))),
+        @ApiResponse(responseCode = "503", description = "Too many concurrent logins and registrations; retry after the Retry-After delay",
+            content = @Content(schema = @Schema(example = """
+                {
+                  "error": "Too many concurrent authentication requests"
+                }
                 """)))
     })
     @PostMapping("/register")
@@ -105,6 +139,8 @@ public class AuthController {
             String deviceInfo = getDeviceInfo(request);
             AuthResponse authResponse = authService.register(registerRequest, deviceInfo);
             return ResponseEntity.ok(authResponse);
+        } catch (PasswordHashingRejectedException e) {
+            return serviceBusy(e);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -185,16 +221,15 @@ public class AuthController {
                 return ResponseEntity.badRequest().body(response);
             }
 
-            boolean isValid = authService.validateToken(token);
+            // One signature check for validity, username and roles
+            Optional<VerifiedToken> verified = authService.verifyToken(token);
             Map<String, Object> response = new HashMap<>();
-            response.put("valid", isValid);
+            response.put("valid", verified.isPresent());
 
-            if (isValid) {
-                String username = authService.getUsernameFromToken(token);
-                Set<String> roles = authService.getRolesFromToken(token);
-                response.put("username", username);
-                response.put("roles", roles);
-            }
+            verified.ifPresent(verifiedToken -> {
+                response.put("username", verifiedToken.subject());
+                response.put("roles", verifiedToken.roles());
+            });
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -223,7 +258,7 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
-    @Operation(summary = "Logout", description = "Revoke a specific refresh token (logout from current device)")
+    @Operation(summary = "Logout", description = "Revoke a specific refresh token (logout from current device), and the access token sent in the Authorization header, if any")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully logged out",
             content = @Content(schema = @Schema(example = """
@@ -246,7 +281,9 @@ public class AuthController {
                       "refreshToken": "550e8400-e29b-41d4-a716-446655440000"
                     }
                     """))
-            @RequestBody Map<String, String> request) {
+            @RequestBody Map<String, String> request,
+            @Parameter(description = "Bearer access token to revoke along with the refresh token")
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
         try {
             String refreshToken = request.get("refreshToken");
             if (refreshToken == null || refreshToken.trim().isEmpty()) {
@@ -255,7 +292,9 @@ public class AuthController {
                 return ResponseEntity.badRequest().body(error);
             }
             
-            authService.logout(refreshToken);
+            String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7) : null;
+            authService.logout(refreshToken, accessToken);
             Map<String, String> response = new HashMap<>();
             response.put("message", "Successfully logged out");
             return ResponseEntity.ok(response);
@@ -266,7 +305,7 @@ public class AuthController {
         }
     }
 
-    @Operation(summary = "Logout All Devices", description = "Revoke all refresh tokens for a user (logout from all devices)")
+    @Operation(summary = "Logout All Devices", description = "Revoke all refresh tokens and already issued access tokens for a user (logout from all devices)")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully logged out from all devices",
             content = @Content(schema = @Schema(example = """
@@ -309,7 +348,7 @@ public class AuthController {
         }
     }
 
-    @Operation(summary = "Get Active Sessions", description = "Get all active sessions for a user")
+    @Operation(summary = "Get Active Sessions", description = "Get one page of a user's active sessions, most recently used first")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved active sessions",
             content = @Content(schema = @Schema(example = """
@@ -321,7 +360,10 @@ public class AuthController {
                       "createdAt": "2024-01-15T10:30:00Z",
                       "lastUsed": "2024-01-15T14:45:00Z"
                     }
-                  ]
+                  ],
+                  "page": 0,
+                  "size": 20,
+                  "total": 1
                 }
                 """))),
         @ApiResponse(responseCode = "400", description = "Invalid user ID",
@@ -334,12 +376,14 @@ public class AuthController {
     @GetMapping("/sessions/{userId}")
     public ResponseEntity<?> getActiveSessions(
             @Parameter(description = "User ID to get sessions for", required = true)
-            @PathVariable Long userId) {
+            @PathVariable Long userId,
+            @Parameter(description = "Zero-based page number")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Sessions per page (1-100)")
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<Map<String, Object>> sessions = authService.getActiveSessions(userId);
-            Map<String, Object> response = new HashMap<>();
-            response.put("sessions", sessions);
-            return ResponseEntity.ok(response);
+            int pageSize = Math.max(1, Math.min(size, MAX_SESSIONS_PAGE_SIZE));
+            return ResponseEntity.ok(authService.getActiveSessions(userId, Math.max(0, page), pageSize));
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Invalid user ID");
@@ -347,6 +391,23 @@ public class AuthController {
         }
     }
 
+    private ResponseEntity<Map<String, String>> serviceBusy(PasswordHashingRejectedException e) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+
+    /**
+     * Client address from RemoteIpValve, trusted only from {@code server.tomcat.remoteip.internal-proxies}.
+     */
+    private String getClientIp(HttpServletRequest request) {
+        // X-Forwarded-For is resolved by Tomcat's RemoteIpValve, which only believes it from
+        // server.tomcat.remoteip.internal-proxies; a client cannot pick its own throttle key
+        return request.getRemoteAddr();
+    }
+
     private String getDeviceInfo(HttpServletRequest request) {
         String userAgent = request.getHeader("User-Agent");
         String xForwardedFor = request.getHeader("X-Forwarded-For");
@@ -0,0 +1,54 @@
+package com.microservices.auth.controller;
+
+import com.microservices.auth.security.JwtSigningKeys;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/auth")
+@Tag(name = "Authentication", description = "APIs for user authentication, registration, and JWT token management")
+public class JwksController {
+
+    @Autowired
+    private JwtSigningKeys signingKeys;
+
+    @Operation(summary = "JSON Web Key Set", description = "Public keys that verify access tokens, selected by the token's kid header")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Current and still-valid previous verification keys",
+            content = @Content(schema = @Schema(example = """
+                {
+                  "keys": [
+                    {
+                      "kty": "EC",
+                      "crv": "P-256",
+                      "kid": "2024-06",
+                      "use": "sig",
+                      "alg": "ES256",
+                      "x": "f83OJ3D2xF1Bg8vub9tLe1gHMzV76e8Tus9uPHvRVEU",
+                      "y": "x_FEzRu9m36HLN_tue659LNpXW6pCyStikYjKIWI5a0"
+                    }
+                  ]
+                }
+                """)))
+    })
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        // Keys only change on redeploy; verifiers refresh on their own schedule
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(signingKeys.getJwks());
+    }
+}
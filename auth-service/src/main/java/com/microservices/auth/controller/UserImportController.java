@@ -0,0 +1,168 @@
+package com.microservices.auth.controller;
+
+import com.microservices.auth.security.VerifiedToken;
+import com.microservices.auth.service.AuthService;
+import com.microservices.auth.service.UserImportJob;
+import com.microservices.auth.service.UserImportReader;
+import com.microservices.auth.service.UserImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/auth/admin/users/import")
+@Tag(name = "User Import", description = "Admin APIs for creating users in bulk")
+public class UserImportController {
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Operation(summary = "Start User Import",
+        description = "Upload a CSV (header row: username,email,password,firstName,lastName) or JSONL file of users "
+            + "to create. The file is imported in the background; poll the returned job for progress. Requires the ADMIN role.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Import queued",
+            content = @Content(schema = @Schema(example = """
+                {
+                  "jobId": "3f6c1c1e-9a77-4d1b-9a51-0c2b8c1e4f2a",
+                  "status": "QUEUED",
+                  "fileName": "acme-users.csv",
+                  "format": "CSV",
+                  "rowsRead": 0,
+                  "imported": 0
+                }
+                """))),
+        @ApiResponse(responseCode = "400", description = "Missing file or unknown format"),
+        @ApiResponse(responseCode = "403", description = "Caller is not an admin"),
+        @ApiResponse(responseCode = "503", description = "Too many imports already queued; retry after the Retry-After delay")
+    })
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> startImport(
+            @Parameter(description = "CSV or JSONL file, one user per line", required = true)
+            @RequestParam("file") MultipartFile file,
+            @Parameter(description = "csv or jsonl; taken from the file extension when omitted")
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        Optional<VerifiedToken> admin = verifyAdmin(authorization);
+        if (admin.isEmpty()) {
+            return error(HttpStatus.FORBIDDEN, "ADMIN role required");
+        }
+        if (file.isEmpty()) {
+            return error(HttpStatus.BAD_REQUEST, "File is required");
+        }
+        UserImportReader.Format importFormat = resolveFormat(format, file.getOriginalFilename());
+        if (importFormat == null) {
+            return error(HttpStatus.BAD_REQUEST, "Format must be csv or jsonl");
+        }
+
+        Path upload = null;
+        try {
+            // The multipart part is gone once this request ends, so the job gets its own copy
+            upload = Files.createTempFile("user-import-", "." + importFormat.name().toLowerCase(Locale.ROOT));
+            file.transferTo(upload);
+            UserImportJob job = userImportService.submit(upload, file.getOriginalFilename(), importFormat,
+                    admin.get().subject());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job.toMap());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "60")
+                    .body(Map.of("error", "Too many user imports in progress"));
+        } catch (IOException e) {
+            deleteQuietly(upload);
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Could not store the uploaded file");
+        }
+    }
+
+    @Operation(summary = "Get User Import Progress", description = "Progress and per-line errors of an import job. Requires the ADMIN role.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Job progress",
+            content = @Content(schema = @Schema(example = """
+                {
+                  "jobId": "3f6c1c1e-9a77-4d1b-9a51-0c2b8c1e4f2a",
+                  "status": "RUNNING",
+                  "rowsRead": 12500,
+                  "imported": 12000,
+                  "duplicates": 3,
+                  "invalid": 1,
+                  "failed": 0,
+                  "errors": ["line 17: Email should be valid", "line 240: Username is already taken"]
+                }
+                """))),
+        @ApiResponse(responseCode = "403", description = "Caller is not an admin"),
+        @ApiResponse(responseCode = "404", description = "Unknown or expired job")
+    })
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> getImport(
+            @Parameter(description = "Job ID returned when the import was started", required = true)
+            @PathVariable String jobId,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        if (verifyAdmin(authorization).isEmpty()) {
+            return error(HttpStatus.FORBIDDEN, "ADMIN role required");
+        }
+        return userImportService.getJob(jobId)
+                .<ResponseEntity<?>>map(job -> ResponseEntity.ok(job.toMap()))
+                .orElseGet(() -> error(HttpStatus.NOT_FOUND, "Import job not found"));
+    }
+
+    private Optional<VerifiedToken> verifyAdmin(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return Optional.empty();
+        }
+        return authService.verifyToken(authorization.substring(7))
+                .filter(token -> token.roles().contains("ADMIN"));
+    }
+
+    private static UserImportReader.Format resolveFormat(String format, String fileName) {
+        String name = format != null ? format : fileName;
+        if (name == null) {
+            return null;
+        }
+        name = name.toLowerCase(Locale.ROOT);
+        if (name.equals("csv") || name.endsWith(".csv")) {
+            return UserImportReader.Format.CSV;
+        }
+        if (name.equals("jsonl") || name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return UserImportReader.Format.JSONL;
+        }
+        return null;
+    }
+
+    private static ResponseEntity<Map<String, String>> error(HttpStatus status, String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", message);
+        return ResponseEntity.status(status).body(error);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException ignored) {
+            // Temp directory is cleaned up by the OS eventually
+        }
+    }
+}
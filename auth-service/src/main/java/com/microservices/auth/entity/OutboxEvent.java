@@ -0,0 +1,58 @@
+package com.microservices.auth.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A Kafka record waiting to be sent, written in the same transaction as the change it
+ * describes. {@code OutboxRelay} sends it and then deletes the row.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "outbox_events", indexes = @Index(name = "idx_outbox_events_key", columnList = "event_key, id"))
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String topic;
+
+    @Column(name = "event_key", length = 100)
+    private String eventKey;
+
+    // Class the payload is read back into, so the record carries the same type header as a direct send
+    @Column(name = "payload_type", nullable = false, length = 200)
+    private String payloadType;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    // Set while a relay is sending the row; once it passes, another relay may take the row over
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+
+    public OutboxEvent(String topic, String eventKey, String payloadType, String payload) {
+        this.topic = topic;
+        this.eventKey = eventKey;
+        this.payloadType = payloadType;
+        this.payload = payload;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,122 @@
+package com.microservices.auth.event;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Published when access tokens must stop being accepted before they expire. A TOKEN event
+ * revokes one access token by its {@code jti}; a USER event revokes every access token of the
+ * user issued before {@code notBefore}.
+ */
+public class TokenRevocationEvent {
+
+    public static final String TYPE_TOKEN = "TOKEN";
+    public static final String TYPE_USER = "USER";
+
+    @JsonProperty("type")
+    private String type;
+
+    @JsonProperty("tokenId")
+    private String tokenId;
+
+    @JsonProperty("userId")
+    private Long userId;
+
+    // Epoch seconds; tokens with an earlier iat are revoked (USER events only)
+    @JsonProperty("notBefore")
+    private Long notBefore;
+
+    // Epoch seconds after which the revocation no longer matters
+    @JsonProperty("expiresAt")
+    private long expiresAt;
+
+    @JsonProperty("timestamp")
+    private long timestamp;
+
+    // Default constructor
+    public TokenRevocationEvent() {}
+
+    private TokenRevocationEvent(String type, String tokenId, Long userId, Long notBefore, long expiresAt) {
+        this.type = type;
+        this.tokenId = tokenId;
+        this.userId = userId;
+        this.notBefore = notBefore;
+        this.expiresAt = expiresAt;
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    public static TokenRevocationEvent forToken(String tokenId, Long userId, long expiresAt) {
+        return new TokenRevocationEvent(TYPE_TOKEN, tokenId, userId, null, expiresAt);
+    }
+
+    public static TokenRevocationEvent forUser(Long userId, long notBefore, long expiresAt) {
+        return new TokenRevocationEvent(TYPE_USER, null, userId, notBefore, expiresAt);
+    }
+
+    /**
+     * Kafka record key; the latest USER event per user supersedes earlier ones on a compacted topic.
+     */
+    public String key() {
+        return TYPE_USER.equals(type) ? "user:" + userId : "token:" + tokenId;
+    }
+
+    // Getters and Setters
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public void setTokenId(String tokenId) {
+        this.tokenId = tokenId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getNotBefore() {
+        return notBefore;
+    }
+
+    public void setNotBefore(Long notBefore) {
+        this.notBefore = notBefore;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "TokenRevocationEvent{" +
+                "type='" + type + '\'' +
+                ", tokenId='" + tokenId + '\'' +
+                ", userId=" + userId +
+                ", notBefore=" + notBefore +
+                ", expiresAt=" + expiresAt +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
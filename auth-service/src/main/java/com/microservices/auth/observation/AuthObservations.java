@@ -0,0 +1,60 @@
+package com.microservices.auth.observation;
+
+import com.microservices.auth.security.LoginThrottledException;
+import com.microservices.auth.security.PasswordHashingRejectedException;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * Breaks login, registration and refresh down into timed phases (user lookup, password match,
+ * token signing, refresh-token persistence, ...), so a slow request can be pinned on MySQL,
+ * BCrypt, signing or Redis.
+ *
+ * <p>Each operation is an observation named {@code auth.operation} tagged {@code operation} and
+ * {@code outcome}; each phase is a child observation named {@code auth.phase} tagged
+ * {@code operation} and {@code phase}. Micrometer turns them into timers of the same names, and
+ * into spans when a tracing bridge is on the classpath.
+ */
+@Component
+public class AuthObservations {
+
+    public static final String OPERATION = "auth.operation";
+    public static final String PHASE = "auth.phase";
+
+    private final ObservationRegistry registry;
+
+    public AuthObservations(ObservationRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> T observe(String operation, Function<AuthOperation, T> body) {
+        Observation observation = Observation.createNotStarted(OPERATION, registry)
+                .contextualName("auth " + operation)
+                .lowCardinalityKeyValue("operation", operation);
+        AuthOperation authOperation = new AuthOperation(operation, observation, registry);
+        observation.start();
+        try (Observation.Scope scope = observation.openScope()) {
+            T result = body.apply(authOperation);
+            authOperation.outcomeIfUnset(AuthOperation.SUCCESS);
+            return result;
+        } catch (LoginThrottledException e) {
+            authOperation.outcomeIfUnset(AuthOperation.THROTTLED);
+            throw e;
+        } catch (PasswordHashingRejectedException e) {
+            authOperation.outcomeIfUnset(AuthOperation.BUSY);
+            throw e;
+        } catch (RuntimeException e) {
+            if (authOperation.outcome() == null) {
+                observation.error(e);
+            }
+            throw e;
+        } finally {
+            authOperation.outcomeIfUnset(AuthOperation.ERROR);
+            observation.lowCardinalityKeyValue("outcome", authOperation.outcome());
+            observation.stop();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.microservices.auth.observation;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+import java.util.function.Supplier;
+
+/**
+ * One observed login, registration or refresh, handed to the code that performs it so that it
+ * can time its phases and say how it ended. See {@link AuthObservations}.
+ */
+public final class AuthOperation {
+
+    public static final String SUCCESS = "success";
+    public static final String BAD_CREDENTIALS = "bad-credentials";
+    public static final String DISABLED = "disabled";
+    public static final String CONFLICT = "conflict";
+    public static final String INVALID_TOKEN = "invalid-token";
+    public static final String THROTTLED = "throttled";
+    public static final String BUSY = "busy";
+    public static final String ERROR = "error";
+
+    private final String name;
+    private final Observation observation;
+    private final ObservationRegistry registry;
+    private String outcome;
+
+    AuthOperation(String name, Observation observation, ObservationRegistry registry) {
+        this.name = name;
+        this.observation = observation;
+        this.registry = registry;
+    }
+
+    /** Times {@code body} as the {@code auth.phase} named {@code phase} of this operation. */
+    public <T> T phase(String phase, Supplier<T> body) {
+        return phaseObservation(phase).observe(body);
+    }
+
+    public void phase(String phase, Runnable body) {
+        phaseObservation(phase).observe(body);
+    }
+
+    private Observation phaseObservation(String phase) {
+        return Observation.createNotStarted(AuthObservations.PHASE, registry)
+                .contextualName(name + " " + phase)
+                .lowCardinalityKeyValue("operation", name)
+                .lowCardinalityKeyValue("phase", phase)
+                .parentObservation(observation);
+    }
+
+    /**
+     * Records an expected failure such as a wrong password and returns the exception to throw
+     * for it; unlike an unexpected exception it is not tagged as an error.
+     */
+    public RuntimeException fail(String outcome, String message) {
+        this.outcome = outcome;
+        return new RuntimeException(message);
+    }
+
+    String outcome() {
+        return outcome;
+    }
+
+    void outcomeIfUnset(String outcome) {
+        if (this.outcome == null) {
+            this.outcome = outcome;
+        }
+    }
+}
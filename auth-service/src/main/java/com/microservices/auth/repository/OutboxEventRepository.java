@@ -0,0 +1,44 @@
+package com.microservices.auth.repository;
+
+import com.microservices.auth.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Rows locked by another relay instance are skipped rather than waited for (MySQL 8+); rows
+    // another relay has claimed, and rows that used up their attempts, are left alone. Only the
+    // oldest row of each key is eligible, so events for one key are sent one at a time, in order.
+    @Query(value = "SELECT * FROM outbox_events e WHERE e.attempts < :maxAttempts "
+                 + "AND (e.claimed_until IS NULL OR e.claimed_until < :now) "
+                 + "AND (e.event_key IS NULL OR NOT EXISTS "
+                 + "(SELECT 1 FROM outbox_events o WHERE o.event_key = e.event_key AND o.id < e.id)) "
+                 + "ORDER BY e.id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(@Param("limit") int limit, @Param("maxAttempts") int maxAttempts,
+                                    @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.claimedUntil = :claimedUntil WHERE e.id IN :ids")
+    void claim(@Param("ids") List<Long> ids, @Param("claimedUntil") LocalDateTime claimedUntil);
+
+    // Releases the claim too, so the row is retried on the next cycle
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.lastError = :lastError, e.claimedUntil = NULL "
+         + "WHERE e.id = :id")
+    void recordFailure(@Param("id") Long id, @Param("lastError") String lastError);
+
+    // [pending count, oldest created_at, parked count]
+    @Query(value = "SELECT COUNT(CASE WHEN attempts < :maxAttempts THEN 1 END), "
+                 + "MIN(CASE WHEN attempts < :maxAttempts THEN created_at END), "
+                 + "COUNT(CASE WHEN attempts >= :maxAttempts THEN 1 END) FROM outbox_events",
+           nativeQuery = true)
+    List<Object[]> backlog(@Param("maxAttempts") int maxAttempts);
+}
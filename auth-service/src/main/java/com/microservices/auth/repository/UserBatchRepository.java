@@ -0,0 +1,120 @@
+package com.microservices.auth.repository;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Set-at-a-time access to {@code users} and {@code user_roles} for bulk imports, where loading
+ * and saving {@code User} entities one by one costs a round trip per row. Inserts go through JDBC
+ * batches, which MySQL Connector/J turns into multi-row inserts when the datasource URL sets
+ * {@code rewriteBatchedStatements=true}.
+ */
+@Repository
+public class UserBatchRepository {
+
+    private static final String INSERT_USER = "INSERT INTO users "
+            + "(username, email, password, first_name, last_name, is_active, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_USER_ROLE = "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public UserBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    public record NewUser(String username, String email, String passwordHash, String firstName, String lastName) {
+    }
+
+    /** Usernames and emails, lower-cased, that already belong to a user. */
+    public record ExistingKeys(Set<String> usernames, Set<String> emails) {
+    }
+
+    /**
+     * Finds which of the given usernames and emails are taken, in one query. Both columns use
+     * MySQL's case-insensitive collation, so the result is lower-cased for comparison.
+     */
+    public ExistingKeys findExisting(Collection<String> usernames, Collection<String> emails) {
+        Set<String> takenUsernames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        if (usernames.isEmpty() && emails.isEmpty()) {
+            return new ExistingKeys(takenUsernames, takenEmails);
+        }
+
+        // An empty IN () is a syntax error; a NULL placeholder matches nothing
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("usernames", usernames.isEmpty() ? null : usernames)
+                .addValue("emails", emails.isEmpty() ? null : emails);
+        namedJdbcTemplate.query("SELECT username, email FROM users WHERE username IN (:usernames) OR email IN (:emails)",
+                params, rs -> {
+                    takenUsernames.add(rs.getString(1).toLowerCase(Locale.ROOT));
+                    takenEmails.add(rs.getString(2).toLowerCase(Locale.ROOT));
+                });
+        return new ExistingKeys(takenUsernames, takenEmails);
+    }
+
+    /**
+     * Inserts the users in one batch and gives each of them the role, returning the generated
+     * ids in the order of {@code users}. Must run inside a transaction.
+     */
+    public List<Long> insertAll(List<NewUser> users, Long roleId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_USER, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        NewUser user = users.get(i);
+                        ps.setString(1, user.username());
+                        ps.setString(2, user.email());
+                        ps.setString(3, user.passwordHash());
+                        ps.setString(4, user.firstName());
+                        ps.setString(5, user.lastName());
+                        ps.setBoolean(6, true);
+                        ps.setTimestamp(7, now);
+                        ps.setTimestamp(8, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return users.size();
+                    }
+                },
+                keyHolder);
+
+        List<Long> ids = new ArrayList<>(users.size());
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            ids.add(((Number) keys.values().iterator().next()).longValue());
+        }
+        if (ids.size() != users.size()) {
+            throw new IllegalStateException("Expected " + users.size() + " generated ids, got " + ids.size());
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_USER_ROLE, ids, ids.size(), (ps, userId) -> {
+            ps.setLong(1, userId);
+            ps.setLong(2, roleId);
+        });
+        return ids;
+    }
+}
@@ -0,0 +1,184 @@
+package com.microservices.auth.security;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Key material for signing and verifying access tokens, loaded once at startup from
+ * {@link JwtSigningProperties}. Also renders the public keys as a JWKS document.
+ */
+@Component
+@EnableConfigurationProperties(JwtSigningProperties.class)
+public class JwtSigningKeys {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtSigningKeys.class);
+
+    private final SignatureAlgorithm algorithm;
+    private final SecretKey hmacKey;
+    private final boolean acceptHmac;
+    private final String activeKid;
+    private final PrivateKey activePrivateKey;
+    private final Map<String, PublicKey> publicKeys = new LinkedHashMap<>();
+    private final Map<String, Object> jwks;
+
+    public JwtSigningKeys(JwtSigningProperties properties, @Value("${jwt.secret}") String jwtSecret) {
+        this.algorithm = SignatureAlgorithm.forName(properties.getAlgorithm());
+        this.hmacKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+
+        // Published in every mode, so verifiers can learn new keys before tokens are signed with them
+        PrivateKey signingKey = null;
+        for (JwtSigningProperties.Key key : properties.getKeys()) {
+            publicKeys.put(key.getKid(), parsePublicKey(key));
+            if (key.getKid().equals(properties.getActiveKid()) && key.getPrivateKey() != null) {
+                signingKey = parsePrivateKey(key);
+            }
+        }
+
+        if (algorithm == SignatureAlgorithm.HS256) {
+            this.acceptHmac = true;
+            this.activeKid = null;
+            this.activePrivateKey = null;
+        } else if (algorithm == SignatureAlgorithm.ES256) {
+            this.acceptHmac = properties.isAcceptHmac();
+            if (publicKeys.isEmpty()) {
+                // Only usable with a single auth-service instance: every restart invalidates all tokens
+                KeyPair keyPair = generateEcKeyPair();
+                String kid = "ephemeral-" + UUID.randomUUID().toString().substring(0, 8);
+                logger.warn("No jwt.signing.keys configured for ES256; generated ephemeral signing key {}", kid);
+                publicKeys.put(kid, keyPair.getPublic());
+                this.activeKid = kid;
+                this.activePrivateKey = keyPair.getPrivate();
+            } else if (signingKey == null) {
+                throw new IllegalStateException(
+                    "jwt.signing.active-kid must name a configured key with a private key: " + properties.getActiveKid());
+            } else {
+                this.activeKid = properties.getActiveKid();
+                this.activePrivateKey = signingKey;
+            }
+            logger.info("Signing access tokens with ES256 key {}; publishing keys {}", activeKid, publicKeys.keySet());
+        } else {
+            throw new IllegalStateException("Unsupported jwt.signing.algorithm: " + properties.getAlgorithm());
+        }
+
+        this.jwks = Map.of("keys", renderJwks());
+    }
+
+    public SignatureAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Key ID to put in the token header, or null for HS256.
+     */
+    public String getActiveKid() {
+        return activeKid;
+    }
+
+    public Key getSigningKey() {
+        return algorithm == SignatureAlgorithm.HS256 ? hmacKey : activePrivateKey;
+    }
+
+    /**
+     * Key that verifies a token with the given header, or null if it cannot be verified here.
+     */
+    public Key getVerificationKey(String alg, String kid) {
+        if (SignatureAlgorithm.HS256.getValue().equals(alg)) {
+            return acceptHmac ? hmacKey : null;
+        }
+        if (SignatureAlgorithm.ES256.getValue().equals(alg) && kid != null) {
+            return publicKeys.get(kid);
+        }
+        return null;
+    }
+
+    /**
+     * Public keys as a JWKS document. The HS256 secret is never published.
+     */
+    public Map<String, Object> getJwks() {
+        return jwks;
+    }
+
+    private List<Map<String, Object>> renderJwks() {
+        List<Map<String, Object>> keys = new ArrayList<>();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        publicKeys.forEach((kid, key) -> {
+            ECPublicKey ecKey = (ECPublicKey) key;
+            Map<String, Object> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("kid", kid);
+            jwk.put("use", "sig");
+            jwk.put("alg", "ES256");
+            jwk.put("x", encoder.encodeToString(toUnsigned32(ecKey.getW().getAffineX())));
+            jwk.put("y", encoder.encodeToString(toUnsigned32(ecKey.getW().getAffineY())));
+            keys.add(jwk);
+        });
+        return List.copyOf(keys);
+    }
+
+    // JWK coordinates are fixed-length big-endian, without BigInteger's sign byte
+    private static byte[] toUnsigned32(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] out = new byte[32];
+        int length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, out, 32 - length, length);
+        return out;
+    }
+
+    private static PublicKey parsePublicKey(JwtSigningProperties.Key key) {
+        try {
+            return KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(decodePem(key.getPublicKey())));
+        } catch (GeneralSecurityException | IllegalArgumentException | NullPointerException e) {
+            throw new IllegalStateException("Invalid public key for kid " + key.getKid(), e);
+        }
+    }
+
+    private static PrivateKey parsePrivateKey(JwtSigningProperties.Key key) {
+        try {
+            return KeyFactory.getInstance("EC").generatePrivate(new PKCS8EncodedKeySpec(decodePem(key.getPrivateKey())));
+        } catch (GeneralSecurityException | IllegalArgumentException | NullPointerException e) {
+            throw new IllegalStateException("Invalid private key for kid " + key.getKid(), e);
+        }
+    }
+
+    private static byte[] decodePem(String pem) {
+        String base64 = pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    private static KeyPair generateEcKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("P-256 key generation not available", e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.microservices.auth.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Access-token signing setup. With {@code ES256}, tokens are signed with the private key of
+ * {@code activeKid}, and the public keys of every listed key are published as a JWKS, so
+ * verifiers never hold signing material. Rotation: add the new key, wait for verifiers to pick
+ * up the JWKS, switch {@code activeKid}, and drop the old key once its tokens have expired.
+ */
+@Data
+@ConfigurationProperties(prefix = "jwt.signing")
+public class JwtSigningProperties {
+
+    // HS256 (shared jwt.secret) or ES256 (keys below)
+    private String algorithm = "HS256";
+
+    private String activeKid;
+
+    private List<Key> keys = new ArrayList<>();
+
+    // Keep accepting HS256 tokens while migrating to ES256, until the last of them has expired
+    private boolean acceptHmac = true;
+
+    @Data
+    public static class Key {
+        private String kid;
+        // PEM, PKCS#8; only needed for the key that signs
+        private String privateKey;
+        // PEM, X.509 SubjectPublicKeyInfo
+        private String publicKey;
+    }
+}
@@ -1,32 +1,50 @@
 package com.microservices.auth.security;
 
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
+import java.security.Key;
+import java.util.Collection;
 import java.util.Date;
 import java.util.Set;
+import java.util.UUID;
 
 @Component
 public class JwtUtils {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
-
     @Value("${jwt.access-token-expiration}")
     private int accessTokenExpiration;
 
-    @Value("${jwt.refresh-token-expiration}")
-    private int refreshTokenExpiration;
+    @Autowired
+    private JwtSigningKeys signingKeys;
+
+    // Built once; the parser is immutable and safe to share across threads
+    private JwtParser jwtParser;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    @PostConstruct
+    void init() {
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        Key key = signingKeys.getVerificationKey(header.getAlgorithm(), header.getKeyId());
+                        if (key == null) {
+                            throw new UnsupportedJwtException("No verification key for alg "
+                                    + header.getAlgorithm() + " and kid " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
     }
 
     public String generateAccessToken(String username, Long userId, Set<String> roles, String email) {
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKeys.getActiveKid())
+                .setId(UUID.randomUUID().toString()) // jti, so a single access token can be revoked
                 .setSubject(username)
                 .claim("userId", userId)
                 .claim("roles", roles)
@@ -34,84 +52,41 @@ public class JwtUtils {
                 .claim("tokenType", "access")
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + accessTokenExpiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
-    }
-
-    public String generateRefreshToken(String username, Long userId) {
-        return Jwts.builder()
-                .setSubject(username)
-                .claim("userId", userId)
-                .claim("tokenType", "refresh")
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + refreshTokenExpiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKeys.getSigningKey(), signingKeys.getAlgorithm())
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+    /**
+     * Checks the signature and expiry once and extracts every claim callers need.
+     *
+     * @throws JwtException if the token is invalid or expired
+     * @throws IllegalArgumentException if the token is empty
+     */
+    public VerifiedToken verify(String token) {
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        Date issuedAt = claims.getIssuedAt();
+        Date expiration = claims.getExpiration();
+        return new VerifiedToken(
+                claims.getId(),
+                claims.getSubject(),
+                claims.get("userId", Long.class),
+                getRoles(claims),
+                claims.get("email", String.class),
+                claims.get("tokenType", String.class),
+                issuedAt != null ? issuedAt.toInstant() : null,
+                expiration != null ? expiration.toInstant() : null);
     }
 
-    public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.get("userId", Long.class);
+    public long getAccessTokenExpirationSeconds() {
+        return accessTokenExpiration / 1000L;
     }
 
     @SuppressWarnings("unchecked")
-    public Set<String> getRolesFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private Set<String> getRoles(Claims claims) {
         Object rolesObj = claims.get("roles");
-        if (rolesObj instanceof java.util.List) {
-            return new java.util.HashSet<>((java.util.List<String>) rolesObj);
-        }
-        return (Set<String>) rolesObj;
-    }
-
-    public String getTokenTypeFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.get("tokenType", String.class);
-    }
-
-    public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
-    }
-
-    public boolean isTokenExpired(String token) {
-        try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            return claims.getExpiration().before(new Date());
-        } catch (JwtException | IllegalArgumentException e) {
-            return true;
+        if (rolesObj instanceof Collection) {
+            return Set.copyOf((Collection<String>) rolesObj);
         }
+        return null;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,289 @@
+package com.microservices.auth.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts failed logins per username and per client address and turns further attempts away
+ * before the password is hashed, so a brute-force or credential-stuffing run cannot spend the
+ * hashing pool that real logins need.
+ *
+ * <p>Failures are counted in a sliding window, estimated from the current and previous fixed
+ * windows weighted by how far into the current one we are. Each key's state is one
+ * {@link AtomicLong} updated by compare-and-set, so recording and checking never lock. Once a
+ * key reaches its threshold it is locked for {@code base-backoff}, doubling with every further
+ * failure up to {@code max-backoff}. A successful login clears the username's failures, not the
+ * address's.
+ *
+ * <p>Counters are per instance unless {@code redis-sync} is enabled, in which case failures are
+ * also counted in Redis and lockouts are shared with every replica. Redis errors fall back to
+ * the local counters rather than blocking logins.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginThrottle.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RECORD_FAILURE_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/record-login-failure.lua"), List.class);
+
+    private static final String REDIS_FAILURES_PREFIX = "auth:throttle:failures:";
+    private static final String REDIS_LOCK_PREFIX = "auth:throttle:lock:";
+
+    private static final String USERNAME = "username";
+    private static final String IP = "ip";
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final boolean redisSync;
+    private final long windowMillis;
+    private final int usernameMaxFailures;
+    private final int ipMaxFailures;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    private final Cache<String, FailureWindow> windows;
+    private final Counter usernameRejections;
+    private final Counter ipRejections;
+
+    public LoginThrottle(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry,
+                         @Value("${auth.login-throttle.enabled:true}") boolean enabled,
+                         @Value("${auth.login-throttle.redis-sync:false}") boolean redisSync,
+                         @Value("${auth.login-throttle.window:PT15M}") Duration window,
+                         @Value("${auth.login-throttle.username-max-failures:5}") int usernameMaxFailures,
+                         @Value("${auth.login-throttle.ip-max-failures:100}") int ipMaxFailures,
+                         @Value("${auth.login-throttle.base-backoff:PT1S}") Duration baseBackoff,
+                         @Value("${auth.login-throttle.max-backoff:PT15M}") Duration maxBackoff,
+                         @Value("${auth.login-throttle.max-tracked-keys:100000}") long maxTrackedKeys) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.redisSync = redisSync;
+        this.windowMillis = window.toMillis();
+        this.usernameMaxFailures = usernameMaxFailures;
+        this.ipMaxFailures = ipMaxFailures;
+        this.baseBackoffMillis = baseBackoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+
+        // A key idle for two windows has no failures left to count; the size bound keeps a flood
+        // of random usernames from growing the heap
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterAccess(Duration.ofMillis(Math.max(2 * windowMillis, maxBackoffMillis)))
+                .build();
+
+        this.usernameRejections = rejectionCounter(meterRegistry, USERNAME);
+        this.ipRejections = rejectionCounter(meterRegistry, IP);
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String scope) {
+        return Counter.builder("auth.login.throttled")
+                .description("Logins rejected before password hashing because of recent failures")
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws LoginThrottledException if the username or address is locked out
+     */
+    public void check(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<String> keys = keys(username, clientIp);
+        long lockedUntil = 0;
+        String lockedKey = null;
+        for (String key : keys) {
+            FailureWindow window = windows.getIfPresent(key);
+            if (window != null && window.lockedUntil.get() > lockedUntil) {
+                lockedUntil = window.lockedUntil.get();
+                lockedKey = key;
+            }
+        }
+        if (lockedUntil <= now && redisSync) {
+            List<String> remote = sharedLocks(keys);
+            for (int i = 0; i < keys.size(); i++) {
+                long remoteUntil = remote.get(i) != null ? Long.parseLong(remote.get(i)) : 0;
+                if (remoteUntil > now) {
+                    window(keys.get(i)).lockUntil(remoteUntil);
+                    if (remoteUntil > lockedUntil) {
+                        lockedUntil = remoteUntil;
+                        lockedKey = keys.get(i);
+                    }
+                }
+            }
+        }
+        if (lockedUntil > now) {
+            (lockedKey.startsWith(USERNAME) ? usernameRejections : ipRejections).increment();
+            throw new LoginThrottledException("Too many failed login attempts; try again later",
+                    Duration.ofMillis(lockedUntil - now));
+        }
+    }
+
+    public void recordFailure(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (String key : keys(username, clientIp)) {
+            double failures = window(key).increment(now, windowMillis);
+            if (redisSync) {
+                failures = Math.max(failures, sharedFailures(key, now));
+            }
+            int threshold = key.startsWith(USERNAME) ? usernameMaxFailures : ipMaxFailures;
+            long excess = (long) failures - threshold;
+            if (excess >= 0) {
+                long backoff = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(excess, 30));
+                window(key).lockUntil(now + backoff);
+                if (redisSync) {
+                    shareLock(key, now + backoff, backoff);
+                }
+                logger.debug("Login throttle: {} locked for {} ms after {} failures", key, backoff, (long) failures);
+            }
+        }
+    }
+
+    public void recordSuccess(String username) {
+        if (!enabled || username == null) {
+            return;
+        }
+        String key = usernameKey(username);
+        windows.invalidate(key);
+        if (redisSync) {
+            try {
+                long window = System.currentTimeMillis() / windowMillis;
+                redisTemplate.unlink(List.of(REDIS_LOCK_PREFIX + key,
+                        REDIS_FAILURES_PREFIX + key + ":" + window, REDIS_FAILURES_PREFIX + key + ":" + (window - 1)));
+            } catch (DataAccessException e) {
+                logger.debug("Login throttle: could not clear shared failures for {}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    private FailureWindow window(String key) {
+        return windows.get(key, k -> new FailureWindow());
+    }
+
+    private static List<String> keys(String username, String clientIp) {
+        List<String> keys = new ArrayList<>(2);
+        if (username != null) {
+            keys.add(usernameKey(username));
+        }
+        if (clientIp != null && !clientIp.isEmpty()) {
+            keys.add(IP + ":" + clientIp);
+        }
+        return keys;
+    }
+
+    private static String usernameKey(String username) {
+        // MySQL compares usernames case-insensitively, so "Admin" and "admin" are the same account
+        return USERNAME + ":" + username.toLowerCase(Locale.ROOT);
+    }
+
+    private List<String> sharedLocks(List<String> keys) {
+        try {
+            List<String> lockKeys = keys.stream().map(key -> REDIS_LOCK_PREFIX + key).toList();
+            List<String> values = lockKeys.isEmpty() ? null : redisTemplate.opsForValue().multiGet(lockKeys);
+            if (values != null) {
+                return values;
+            }
+        } catch (DataAccessException e) {
+            logger.debug("Login throttle: could not read shared lockouts: {}", e.getMessage());
+        }
+        return new ArrayList<>(Collections.nCopies(keys.size(), null));
+    }
+
+    private double sharedFailures(String key, long now) {
+        try {
+            long window = now / windowMillis;
+            List<?> counts = redisTemplate.execute(RECORD_FAILURE_SCRIPT,
+                    List.of(REDIS_FAILURES_PREFIX + key + ":" + window, REDIS_FAILURES_PREFIX + key + ":" + (window - 1)),
+                    Long.toString(2 * windowMillis));
+            if (counts == null || counts.size() < 2) {
+                return 0;
+            }
+            return FailureWindow.estimate(((Number) counts.get(0)).longValue(), ((Number) counts.get(1)).longValue(),
+                    now, windowMillis);
+        } catch (DataAccessException e) {
+            logger.debug("Login throttle: could not count shared failure for {}: {}", key, e.getMessage());
+            return 0;
+        }
+    }
+
+    private void shareLock(String key, long lockedUntil, long backoffMillis) {
+        try {
+            redisTemplate.opsForValue().set(REDIS_LOCK_PREFIX + key, Long.toString(lockedUntil),
+                    backoffMillis, TimeUnit.MILLISECONDS);
+        } catch (DataAccessException e) {
+            logger.debug("Login throttle: could not share lockout for {}: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Failure counts of one key for the current and previous fixed window, packed into a single
+     * long so both are read and updated together: window index (upper 32 bits), current count
+     * (next 16) and previous count (low 16). Counts saturate at 65535, far above any sensible
+     * threshold.
+     */
+    static final class FailureWindow {
+
+        private static final long COUNT_MASK = 0xFFFFL;
+        private static final long INDEX_MASK = 0xFFFFFFFFL;
+
+        private final AtomicLong state = new AtomicLong();
+        private final AtomicLong lockedUntil = new AtomicLong();
+
+        double increment(long now, long windowMillis) {
+            long index = (now / windowMillis) & INDEX_MASK;
+            long next;
+            long current;
+            long previous;
+            long prev;
+            do {
+                prev = state.get();
+                long rolled = roll(prev, index);
+                current = Math.min(COUNT_MASK, ((rolled >>> 16) & COUNT_MASK) + 1);
+                previous = rolled & COUNT_MASK;
+                next = (index << 32) | (current << 16) | previous;
+            } while (!state.compareAndSet(prev, next));
+            return estimate(current, previous, now, windowMillis);
+        }
+
+        void lockUntil(long until) {
+            lockedUntil.accumulateAndGet(until, Math::max);
+        }
+
+        // Moves to window index, carrying the count over as "previous" only from the window just before
+        private static long roll(long state, long index) {
+            long stateIndex = state >>> 32;
+            if (stateIndex == index) {
+                return state;
+            }
+            long previous = ((stateIndex + 1) & INDEX_MASK) == index ? (state >>> 16) & COUNT_MASK : 0;
+            return (index << 32) | previous;
+        }
+
+        static double estimate(long current, long previous, long now, long windowMillis) {
+            double elapsed = (double) (now % windowMillis) / windowMillis;
+            return current + previous * (1.0 - elapsed);
+        }
+    }
+}
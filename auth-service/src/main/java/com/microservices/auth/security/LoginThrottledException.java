@@ -0,0 +1,21 @@
+package com.microservices.auth.security;
+
+import java.time.Duration;
+
+/**
+ * Thrown before any password hashing when too many logins have recently failed for the
+ * username or client address; the caller should wait {@link #getRetryAfter()} before retrying.
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public LoginThrottledException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,12 @@
+package com.microservices.auth.security;
+
+/**
+ * Thrown when the password-hashing executor is saturated; the request should be retried later
+ * rather than queue behind other BCrypt work.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.microservices.auth.security;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Claims of a token whose signature and expiry have been checked, extracted in a single parse.
+ */
+public record VerifiedToken(String tokenId, String subject, Long userId, Set<String> roles, String email,
+                            String tokenType, Instant issuedAt, Instant expiresAt) {
+
+    public VerifiedToken {
+        roles = roles != null ? Set.copyOf(roles) : Set.of();
+    }
+}
@@ -1,21 +1,31 @@
 package com.microservices.auth.service;
 
+import com.microservices.auth.cache.AuthUserCache;
+import com.microservices.auth.cache.AuthUserSnapshot;
 import com.microservices.auth.dto.AuthResponse;
 import com.microservices.auth.dto.LoginRequest;
 import com.microservices.auth.dto.RegisterRequest;
 import com.microservices.auth.entity.RefreshToken;
 import com.microservices.auth.entity.Role;
 import com.microservices.auth.entity.User;
-import com.microservices.auth.event.UserRegisteredEvent;
+import com.microservices.auth.event.TokenRevocationEvent;
 import com.microservices.auth.event.UserEvent;
+import com.microservices.auth.observation.AuthObservations;
+import com.microservices.auth.observation.AuthOperation;
 import com.microservices.auth.repository.RoleRepository;
 import com.microservices.auth.repository.UserRepository;
 import com.microservices.auth.security.JwtUtils;
+import com.microservices.auth.security.LoginThrottle;
+import com.microservices.auth.security.PasswordHasher;
+import com.microservices.auth.security.PasswordHashingRejectedException;
+import com.microservices.auth.security.VerifiedToken;
+import io.jsonwebtoken.JwtException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.HashMap;
 import java.util.HashSet;
@@ -37,130 +47,178 @@ public class AuthService {
     private RoleRepository roleRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     @Autowired
     private JwtUtils jwtUtils;
 
-    @Autowired
-    private EventPublisher eventPublisher;
-
     @Autowired
     private RefreshTokenService refreshTokenService;
 
-    public AuthResponse login(LoginRequest loginRequest, String deviceInfo) {
-        User user = userRepository.findByUsername(loginRequest.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    @Autowired
+    private AuthUserCache userCache;
 
-        if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
-            throw new RuntimeException("Invalid credentials");
-        }
+    @Autowired
+    private EventOutbox eventOutbox;
 
-        if (!user.getIsActive()) {
-            throw new RuntimeException("User account is disabled");
-        }
+    @Autowired
+    private AuthObservations authObservations;
 
-        Set<String> roleNames = user.getRoles().stream()
-                .map(Role::getName)
-                .collect(Collectors.toSet());
+    @Autowired
+    private LoginThrottle loginThrottle;
 
-        String accessToken = jwtUtils.generateAccessToken(user.getUsername(), user.getId(), roleNames, user.getEmail());
-        String refreshToken = refreshTokenService.createRefreshToken(user.getId(), user.getUsername(), deviceInfo != null ? deviceInfo : "Unknown Device");
+    private final TransactionTemplate transactionTemplate;
 
-        return new AuthResponse(accessToken, refreshToken, user.getId(), user.getUsername(), user.getEmail(), roleNames);
+    public AuthService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    public AuthResponse register(RegisterRequest registerRequest, String deviceInfo) {
-        if (userRepository.existsByUsername(registerRequest.getUsername())) {
-            throw new RuntimeException("Username is already taken");
-        }
-
-        if (userRepository.existsByEmail(registerRequest.getEmail())) {
-            throw new RuntimeException("Email is already in use");
-        }
-
-        User user = new User();
-        user.setUsername(registerRequest.getUsername());
-        user.setEmail(registerRequest.getEmail());
-        user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
-        user.setFirstName(registerRequest.getFirstName());
-        user.setLastName(registerRequest.getLastName());
-
-        // Assign default USER role
-        Role userRole = roleRepository.findByName("USER")
-                .orElseThrow(() -> new RuntimeException("Default role not found"));
-        
-        Set<Role> roles = new HashSet<>();
-        roles.add(userRole);
-        user.setRoles(roles);
-
-        User savedUser = userRepository.save(user);
-
-        Set<String> roleNames = savedUser.getRoles().stream()
-                .map(Role::getName)
-                .collect(Collectors.toSet());
+    public AuthResponse login(LoginRequest loginRequest, String deviceInfo, String clientIp) {
+        return authObservations.observe("login", op -> {
+            // Before the lookup and the hash: a throttled attempt costs neither a query nor BCrypt time
+            op.phase("throttle-check", () -> loginThrottle.check(loginRequest.getUsername(), clientIp));
+
+            User user = op.phase("user-lookup", () -> userRepository.findByUsername(loginRequest.getUsername()))
+                    .orElseThrow(() -> {
+                        loginThrottle.recordFailure(loginRequest.getUsername(), clientIp);
+                        return op.fail(AuthOperation.BAD_CREDENTIALS, "User not found");
+                    });
+
+            // Includes the wait for a hashing thread, unlike the auth.password.hashing timer
+            if (!op.phase("password-match", () -> passwordHasher.matches(loginRequest.getPassword(), user.getPassword()))) {
+                loginThrottle.recordFailure(loginRequest.getUsername(), clientIp);
+                throw op.fail(AuthOperation.BAD_CREDENTIALS, "Invalid credentials");
+            }
+            loginThrottle.recordSuccess(loginRequest.getUsername());
+
+            if (!user.getIsActive()) {
+                throw op.fail(AuthOperation.DISABLED, "User account is disabled");
+            }
+
+            if (passwordHasher.needsRehash(user.getPassword())) {
+                op.phase("password-rehash", () -> rehashPassword(user, loginRequest.getPassword()));
+            }
+
+            // Login needs the password hash, so it always reads the entity; it also primes the cache for refresh
+            Set<String> roleNames = op.phase("role-mapping", () -> userCache.put(user).roleNames());
+
+            String accessToken = op.phase("token-signing",
+                    () -> jwtUtils.generateAccessToken(user.getUsername(), user.getId(), roleNames, user.getEmail()));
+            String refreshToken = op.phase("refresh-token-persist",
+                    () -> refreshTokenService.createRefreshToken(user.getId(), user.getUsername(), deviceInfo != null ? deviceInfo : "Unknown Device"));
+
+            return new AuthResponse(accessToken, refreshToken, user.getId(), user.getUsername(), user.getEmail(), roleNames);
+        });
+    }
 
-        // Publish user registered event to Kafka
+    // The plain password is only known at login, so that is when a hash with an outdated cost is replaced
+    private void rehashPassword(User user, String rawPassword) {
         try {
-            // Create the fullName from firstName and lastName
-            String fullName = (savedUser.getFirstName() != null ? savedUser.getFirstName() : "") + 
-                              " " + 
-                              (savedUser.getLastName() != null ? savedUser.getLastName() : "");
-            fullName = fullName.trim();
-
-            UserEvent event = new UserEvent(
-                "USER_CREATED",
-                savedUser.getId(),
-                savedUser.getUsername(),
-                savedUser.getEmail(),
-                fullName
-            );
-            eventPublisher.publishUserEvent(event);
-            logger.info("Published USER_CREATED event for user: {}", savedUser.getUsername());
-        } catch (Exception e) {
-            logger.error("Failed to publish USER_CREATED event for user: {}", savedUser.getUsername(), e);
-            // Don't fail the registration if event publishing fails
+            user.setPassword(passwordHasher.encode(rawPassword));
+            userRepository.save(user);
+            userCache.invalidate(user.getUsername());
+            logger.info("Rehashed password for user {} with the current BCrypt cost", user.getUsername());
+        } catch (PasswordHashingRejectedException e) {
+            // Under load; try again on a later login rather than fail this one
+            logger.debug("Skipped password rehash for user {}: {}", user.getUsername(), e.getMessage());
         }
+    }
 
-        String accessToken = jwtUtils.generateAccessToken(savedUser.getUsername(), savedUser.getId(), roleNames, savedUser.getEmail());
-        String refreshToken = refreshTokenService.createRefreshToken(savedUser.getId(), savedUser.getUsername(), deviceInfo != null ? deviceInfo : "Unknown Device");
+    public AuthResponse register(RegisterRequest registerRequest, String deviceInfo) {
+        return authObservations.observe("register", op -> {
+            op.phase("duplicate-check", () -> {
+                if (userRepository.existsByUsername(registerRequest.getUsername())) {
+                    throw op.fail(AuthOperation.CONFLICT, "Username is already taken");
+                }
+
+                if (userRepository.existsByEmail(registerRequest.getEmail())) {
+                    throw op.fail(AuthOperation.CONFLICT, "Email is already in use");
+                }
+            });
+
+            User user = new User();
+            user.setUsername(registerRequest.getUsername());
+            user.setEmail(registerRequest.getEmail());
+            user.setPassword(op.phase("password-hash", () -> passwordHasher.encode(registerRequest.getPassword())));
+            user.setFirstName(registerRequest.getFirstName());
+            user.setLastName(registerRequest.getLastName());
+
+            // Assign default USER role
+            Role userRole = op.phase("role-lookup", () -> roleRepository.findByName("USER"))
+                    .orElseThrow(() -> new RuntimeException("Default role not found"));
+
+            Set<Role> roles = new HashSet<>();
+            roles.add(userRole);
+            user.setRoles(roles);
+
+            // The user row and its USER_CREATED event commit together; OutboxRelay delivers the event
+            User savedUser = transactionTemplate.execute(status -> {
+                User saved = op.phase("user-persist", () -> userRepository.save(user));
+                op.phase("event-publish", () -> eventOutbox.enqueueUserEvent(new UserEvent(
+                    "USER_CREATED",
+                    saved.getId(),
+                    saved.getUsername(),
+                    saved.getEmail(),
+                    fullName(saved)
+                )));
+                return saved;
+            });
+            logger.debug("Queued USER_CREATED event for user ID: {}", savedUser.getId());
+
+            Set<String> roleNames = op.phase("role-mapping", () -> userCache.put(savedUser).roleNames());
+
+            String accessToken = op.phase("token-signing",
+                    () -> jwtUtils.generateAccessToken(savedUser.getUsername(), savedUser.getId(), roleNames, savedUser.getEmail()));
+            String refreshToken = op.phase("refresh-token-persist",
+                    () -> refreshTokenService.createRefreshToken(savedUser.getId(), savedUser.getUsername(), deviceInfo != null ? deviceInfo : "Unknown Device"));
+
+            return new AuthResponse(accessToken, refreshToken, savedUser.getId(), savedUser.getUsername(), savedUser.getEmail(), roleNames);
+        });
+    }
 
-        return new AuthResponse(accessToken, refreshToken, savedUser.getId(), savedUser.getUsername(), savedUser.getEmail(), roleNames);
+    private static String fullName(User user) {
+        String fullName = (user.getFirstName() != null ? user.getFirstName() : "") +
+                          " " +
+                          (user.getLastName() != null ? user.getLastName() : "");
+        return fullName.trim();
     }
 
     public AuthResponse refreshToken(String refreshToken) {
-        // Validate refresh token using Redis
-        Optional<RefreshToken> refreshTokenOpt = refreshTokenService.validateRefreshToken(refreshToken);
-        if (refreshTokenOpt.isEmpty()) {
-            throw new RuntimeException("Invalid refresh token");
-        }
-
-        RefreshToken tokenData = refreshTokenOpt.get();
-        String username = tokenData.getUsername();
-        Long userId = tokenData.getUserId();
-
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        if (!user.getIsActive()) {
-            throw new RuntimeException("User account is disabled");
-        }
-
-        Set<String> roleNames = user.getRoles().stream()
-                .map(Role::getName)
-                .collect(Collectors.toSet());
-
-        // Generate new access token
-        String newAccessToken = jwtUtils.generateAccessToken(username, userId, roleNames, user.getEmail());
-        
-        // Create new refresh token and revoke old one
-        refreshTokenService.revokeRefreshToken(refreshToken);
-        String newRefreshToken = refreshTokenService.createRefreshToken(userId, username, tokenData.getDeviceInfo());
-
-        return new AuthResponse(newAccessToken, newRefreshToken, userId, username, user.getEmail(), roleNames);
+        return authObservations.observe("refresh", op -> {
+            // Revoke the presented token and issue its replacement in one atomic step, so a token
+            // replayed concurrently cannot be redeemed twice
+            Optional<RefreshToken> rotated = op.phase("refresh-token-rotate", () -> refreshTokenService.rotateRefreshToken(refreshToken));
+            if (rotated.isEmpty()) {
+                throw op.fail(AuthOperation.INVALID_TOKEN, "Invalid refresh token");
+            }
+
+            RefreshToken tokenData = rotated.get();
+            String username = tokenData.getUsername();
+            Long userId = tokenData.getUserId();
+
+            Optional<AuthUserSnapshot> userOpt = op.phase("user-lookup", () -> userCache.get(username));
+            if (userOpt.isEmpty() || !userOpt.get().active()) {
+                refreshTokenService.revokeRefreshToken(tokenData.getToken(), userId);
+                throw userOpt.isEmpty()
+                        ? op.fail(AuthOperation.INVALID_TOKEN, "User not found")
+                        : op.fail(AuthOperation.DISABLED, "User account is disabled");
+            }
+            AuthUserSnapshot user = userOpt.get();
+
+            Set<String> roleNames = user.roleNames();
+
+            // Generate new access token
+            String newAccessToken = op.phase("token-signing",
+                    () -> jwtUtils.generateAccessToken(username, userId, roleNames, user.email()));
+
+            return new AuthResponse(newAccessToken, tokenData.getToken(), userId, username, user.email(), roleNames);
+        });
     }
 
-    public void logout(String refreshToken) {
+    public void logout(String refreshToken, String accessToken) {
+        if (accessToken != null) {
+            revokeAccessToken(accessToken);
+        }
         boolean revoked = refreshTokenService.revokeRefreshToken(refreshToken);
         if (!revoked) {
             throw new RuntimeException("Refresh token not found or already revoked");
@@ -169,11 +227,42 @@ public class AuthService {
 
     public void logoutAll(Long userId) {
         refreshTokenService.revokeAllUserTokens(userId);
+
+        // Access tokens issued before now stop working at the gateway; the entry can be dropped
+        // once the longest-lived of them would have expired anyway
+        long now = System.currentTimeMillis() / 1000L;
+        enqueueTokenRevocation(TokenRevocationEvent.forUser(userId, now, now + jwtUtils.getAccessTokenExpirationSeconds()));
     }
 
-    public List<Map<String, Object>> getActiveSessions(Long userId) {
-        List<RefreshToken> tokens = refreshTokenService.getUserActiveSessions(userId);
-        return tokens.stream().map(token -> {
+    private void revokeAccessToken(String accessToken) {
+        VerifiedToken token;
+        try {
+            token = jwtUtils.verify(accessToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            // Already expired or not ours: nothing left to revoke
+            logger.debug("Not revoking access token on logout: {}", e.getMessage());
+            return;
+        }
+        if (token.tokenId() == null) {
+            // Issued before tokens carried a jti; it expires on its own
+            return;
+        }
+        enqueueTokenRevocation(TokenRevocationEvent.forToken(
+            token.tokenId(), token.userId(), token.expiresAt().getEpochSecond()));
+    }
+
+    // Through the outbox like user events, so a revocation Kafka did not take is retried, not lost
+    private void enqueueTokenRevocation(TokenRevocationEvent event) {
+        transactionTemplate.executeWithoutResult(status -> eventOutbox.enqueueTokenRevocation(event));
+        logger.debug("Queued token revocation: {}", event);
+    }
+
+    /**
+     * One page of the user's sessions, most recently used first, with the total session count.
+     */
+    public Map<String, Object> getActiveSessions(Long userId, int page, int size) {
+        RefreshTokenService.SessionPage sessionPage = refreshTokenService.getUserActiveSessions(userId, page * size, size);
+        List<Map<String, Object>> sessions = sessionPage.sessions().stream().map(token -> {
             Map<String, Object> session = new HashMap<>();
             session.put("token", token.getToken());
             session.put("deviceInfo", token.getDeviceInfo());
@@ -181,17 +270,23 @@ public class AuthService {
             session.put("lastUsed", token.getLastUsedAt());
             return session;
         }).collect(Collectors.toList());
-    }
-
-    public boolean validateToken(String token) {
-        return jwtUtils.validateToken(token);
-    }
 
-    public String getUsernameFromToken(String token) {
-        return jwtUtils.getUsernameFromToken(token);
+        Map<String, Object> response = new HashMap<>();
+        response.put("sessions", sessions);
+        response.put("page", page);
+        response.put("size", size);
+        response.put("total", sessionPage.total());
+        return response;
     }
 
-    public Set<String> getRolesFromToken(String token) {
-        return jwtUtils.getRolesFromToken(token);
+    /**
+     * Verifies the token once; empty if the signature is invalid or it has expired.
+     */
+    public Optional<VerifiedToken> verifyToken(String token) {
+        try {
+            return Optional.of(jwtUtils.verify(token));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.microservices.auth.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.auth.entity.OutboxEvent;
+import com.microservices.auth.event.TokenRevocationEvent;
+import com.microservices.auth.event.UserEvent;
+import com.microservices.auth.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Queues Kafka records in the {@code outbox_events} table. Must be called inside the transaction
+ * that makes the change the event describes, so the event exists if and only if the change was
+ * committed; {@link OutboxRelay} delivers it afterwards.
+ */
+@Service
+public class EventOutbox {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.kafka.topic.user-events:user-events}")
+    private String userEventsTopic;
+
+    @Value("${app.kafka.topic.token-revocations:token-revocations}")
+    private String tokenRevocationsTopic;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueUserEvent(UserEvent event) {
+        enqueue(userEventsTopic, event.getUserId().toString(), event);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueTokenRevocation(TokenRevocationEvent event) {
+        enqueue(tokenRevocationsTopic, event.key(), event);
+    }
+
+    /**
+     * Queues many user events with one JDBC batch instead of an entity insert each, for bulk
+     * writes such as user imports.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueUserEvents(List<UserEvent> events) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (UserEvent event : events) {
+            rows.add(new Object[] {userEventsTopic, event.getUserId().toString(), UserEvent.class.getName(), serialize(event), now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO outbox_events (topic, event_key, payload_type, payload, created_at, attempts) "
+                + "VALUES (?, ?, ?, ?, ?, 0)", rows);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String topic, String key, Object event) {
+        outboxEventRepository.save(new OutboxEvent(topic, key, event.getClass().getName(), serialize(event)));
+    }
+
+    private String serialize(Object event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize " + event.getClass().getSimpleName(), e);
+        }
+    }
+}
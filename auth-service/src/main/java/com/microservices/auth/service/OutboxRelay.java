@@ -0,0 +1,232 @@
+package com.microservices.auth.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.auth.entity.OutboxEvent;
+import com.microservices.auth.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains {@code outbox_events} to Kafka. Each cycle claims the oldest batch in a short
+ * transaction: it locks the rows with {@code FOR UPDATE SKIP LOCKED}, so several auth-service
+ * instances can relay side by side, and stamps them with a lease ({@code claimed_until}). The
+ * claim runs at READ COMMITTED, so it locks only the rows it takes and never holds back the
+ * inserts of {@code register} or logout. The batch is then handed to the producer at once (which
+ * batches and compresses it) with no transaction or connection held while waiting for the acks.
+ * A second short transaction deletes the acknowledged rows and releases the failed ones, which
+ * are retried next cycle. If a relay dies mid-batch its rows are taken over once the lease
+ * expires. Delivery is at least once: a crash between the ack and the delete resends the batch.
+ *
+ * <p>Only the oldest row of each event key can be claimed, so events for one key (one user, one
+ * token) reach Kafka in the order they were written, even across retries.
+ *
+ * <p>A row that has failed {@code max-attempts} times (an unreadable payload, a record the broker
+ * rejects) is parked: it stays in the table with its last error but is no longer sent, so it
+ * cannot hold up other keys. Later rows with the same key wait behind it. Parked rows show in
+ * {@code auth.outbox.parked}; once the cause is fixed, setting {@code attempts} back to 0 requeues
+ * them.
+ */
+@Service
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final String EVENT_PACKAGE = "com.microservices.auth.event.";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final int maxAttempts;
+    private final Duration claimLease;
+
+    private final Counter published;
+    private final Counter failed;
+    private final Timer lag;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong oldestAgeSeconds = new AtomicLong();
+    private final AtomicLong parked = new AtomicLong();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, KafkaTemplate<String, Object> kafkaTemplate,
+                       ObjectMapper objectMapper, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                       @Value("${app.outbox.batch-size:200}") int batchSize,
+                       @Value("${app.outbox.send-timeout:PT35S}") Duration sendTimeout,
+                       @Value("${app.outbox.max-attempts:25}") int maxAttempts,
+                       @Value("${app.outbox.claim-lease:PT1M}") Duration claimLease) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Row locks only: at REPEATABLE READ the claim scan would also take gap locks that block inserts
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+        this.maxAttempts = maxAttempts;
+        this.claimLease = claimLease;
+
+        this.published = Counter.builder("auth.outbox.sent")
+                .description("Outbox events handed to Kafka, by outcome")
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        this.failed = Counter.builder("auth.outbox.sent")
+                .description("Outbox events handed to Kafka, by outcome")
+                .tag("outcome", "failure")
+                .register(meterRegistry);
+        this.lag = Timer.builder("auth.outbox.lag")
+                .description("Time from writing an outbox event to its Kafka ack")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("auth.outbox.pending", pending, AtomicLong::get)
+                .description("Outbox events not yet delivered")
+                .register(meterRegistry);
+        Gauge.builder("auth.outbox.oldest.age", oldestAgeSeconds, AtomicLong::get)
+                .description("Age in seconds of the oldest undelivered outbox event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("auth.outbox.parked", parked, AtomicLong::get)
+                .description("Outbox events that used up their attempts and are no longer sent")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:PT0.5S}")
+    public void relay() {
+        try {
+            // A full batch means more are waiting; keep going instead of sleeping a poll interval
+            while (relayBatch()) {
+                // next batch
+            }
+        } catch (Exception e) {
+            logger.error("Outbox relay cycle failed", e);
+        }
+    }
+
+    private boolean relayBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> claimNextBatch());
+        if (batch.isEmpty()) {
+            return false;
+        }
+
+        List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            sends.add(send(event));
+        }
+
+        List<Long> delivered = new ArrayList<>(batch.size());
+        Map<OutboxEvent, Throwable> failures = new LinkedHashMap<>();
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                delivered.add(event.getId());
+                lag.record(Duration.between(event.getCreatedAt(), LocalDateTime.now()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failures.put(event, e);
+            } catch (ExecutionException | TimeoutException e) {
+                failures.put(event, e instanceof ExecutionException ? e.getCause() : e);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!delivered.isEmpty()) {
+                outboxEventRepository.deleteAllByIdInBatch(delivered);
+            }
+            failures.forEach(this::markFailed);
+        });
+        published.increment(delivered.size());
+
+        if (!failures.isEmpty()) {
+            // One line per batch: while Kafka is down every cycle fails the same way
+            logger.warn("{} of {} outbox events not delivered, will retry: {}",
+                    failures.size(), batch.size(), failures.values().iterator().next().toString());
+        }
+        logger.debug("Relayed {} of {} outbox events", delivered.size(), batch.size());
+        return delivered.size() == batchSize;
+    }
+
+    private List<OutboxEvent> claimNextBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = outboxEventRepository.lockNextBatch(batchSize, maxAttempts, now);
+        if (!batch.isEmpty()) {
+            outboxEventRepository.claim(batch.stream().map(OutboxEvent::getId).toList(), now.plus(claimLease));
+        }
+        return batch;
+    }
+
+    private CompletableFuture<SendResult<String, Object>> send(OutboxEvent event) {
+        try {
+            if (!event.getPayloadType().startsWith(EVENT_PACKAGE)) {
+                throw new IllegalStateException("Unexpected outbox payload type " + event.getPayloadType());
+            }
+            Object payload = objectMapper.readValue(event.getPayload(), Class.forName(event.getPayloadType()));
+            return kafkaTemplate.send(event.getTopic(), event.getEventKey(), payload);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void markFailed(OutboxEvent event, Throwable cause) {
+        String message = String.valueOf(cause);
+        String lastError = message.length() > 500 ? message.substring(0, 500) : message;
+        outboxEventRepository.recordFailure(event.getId(), lastError);
+        failed.increment();
+        int attempts = event.getAttempts() + 1;
+        if (attempts >= maxAttempts) {
+            logger.error("Parking outbox event {} ({} to {}) after {} failed attempts: {}", event.getId(),
+                    event.getPayloadType(), event.getTopic(), attempts, lastError);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.metrics-interval:PT15S}")
+    public void refreshBacklogMetrics() {
+        try {
+            Object[] backlog = outboxEventRepository.backlog(maxAttempts).get(0);
+            pending.set(((Number) backlog[0]).longValue());
+            oldestAgeSeconds.set(backlog[1] == null ? 0L
+                    : Duration.between(toLocalDateTime(backlog[1]), LocalDateTime.now()).toSeconds());
+            parked.set(((Number) backlog[2]).longValue());
+        } catch (Exception e) {
+            logger.debug("Could not read outbox backlog: {}", e.getMessage());
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        if (value instanceof LocalDateTime localDateTime) {
+            return localDateTime;
+        }
+        return ((Instant) value).atZone(ZoneId.systemDefault()).toLocalDateTime();
+    }
+}
@@ -1,28 +1,61 @@
 package com.microservices.auth.service;
 
 import com.microservices.auth.entity.RefreshToken;
-import com.microservices.auth.repository.RefreshTokenRepository;
-import com.microservices.auth.security.JwtUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * Refresh tokens in Redis. Each token is a hash at {@code auth:rt:<token>} that expires with the
+ * token, and every user has a session index {@code auth:rt:sessions:<userId>}: a sorted set of
+ * their tokens scored by last use. Each write is a single Lua script, so it costs one round trip
+ * and the hash and the index never disagree. Index entries of tokens that simply expired are
+ * dropped on the user's next login and by a periodic sweep.
+ */
 @Service
 public class RefreshTokenService {
 
     private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
 
-    @Autowired
-    private RefreshTokenRepository refreshTokenRepository;
+    private static final String TOKEN_KEY_PREFIX = "auth:rt:";
+    private static final String SESSION_INDEX_KEY_PREFIX = "auth:rt:sessions:";
+
+    private static final int PRUNE_BATCH_SIZE = 500;
+
+    // The rotate and revoke scripts reach keys derived from stored values, so the store must be a
+    // single Redis node (standalone or Sentinel), not Redis Cluster; see the scripts
+    private static final RedisScript<Long> CREATE_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/create-refresh-token.lua"), Long.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ROTATE_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/rotate-refresh-token.lua"), List.class);
+    private static final RedisScript<Long> REVOKE_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/revoke-refresh-token.lua"), Long.class);
+    private static final RedisScript<Long> REVOKE_USER_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/revoke-user-refresh-tokens.lua"), Long.class);
 
     @Autowired
-    private JwtUtils jwtUtils;
+    private StringRedisTemplate redisTemplate;
 
     @Value("${jwt.refresh-token-expiration:604800000}")
     private Long refreshTokenExpiration;
@@ -34,16 +67,15 @@ public class RefreshTokenService {
         try {
             // Generate unique token ID (not JWT for better control)
             String tokenId = UUID.randomUUID().toString();
-            
-            // Create RefreshToken entity
-            RefreshToken refreshToken = new RefreshToken(tokenId, userId, username, deviceInfo);
-            
-            // Save to Redis (automatically expires after TTL)
-            refreshTokenRepository.save(refreshToken);
-            
+
+            redisTemplate.execute(CREATE_SCRIPT,
+                    List.of(tokenKey(tokenId), sessionIndexKey(userId)),
+                    tokenId, String.valueOf(userId), username, deviceInfo,
+                    String.valueOf(System.currentTimeMillis()), ttlSeconds());
+
             logger.info("Created refresh token for user: {} with token ID: {}", username, tokenId);
             return tokenId;
-            
+
         } catch (Exception e) {
             logger.error("Failed to create refresh token for user: {}", username, e);
             throw new RuntimeException("Failed to create refresh token");
@@ -51,28 +83,31 @@ public class RefreshTokenService {
     }
 
     /**
-     * Validate refresh token and return user info
+     * Atomically revoke a refresh token and issue its replacement for the same user and device.
+     * Returns the new token, or empty if the old one was unknown, expired or already rotated;
+     * of two concurrent rotations of the same token only one succeeds.
      */
-    public Optional<RefreshToken> validateRefreshToken(String token) {
+    public Optional<RefreshToken> rotateRefreshToken(String token) {
         try {
-            Optional<RefreshToken> refreshTokenOpt = refreshTokenRepository.findById(token);
-            
-            if (refreshTokenOpt.isPresent()) {
-                RefreshToken refreshToken = refreshTokenOpt.get();
-                
-                // Update last used timestamp
-                refreshToken.updateLastUsed();
-                refreshTokenRepository.save(refreshToken);
-                
-                logger.debug("Validated refresh token for user: {}", refreshToken.getUsername());
-                return refreshTokenOpt;
-            } else {
+            String newTokenId = UUID.randomUUID().toString();
+            long now = System.currentTimeMillis();
+            List<?> previous = redisTemplate.execute(ROTATE_SCRIPT,
+                    List.of(tokenKey(token), tokenKey(newTokenId)),
+                    token, newTokenId, String.valueOf(now), ttlSeconds(), SESSION_INDEX_KEY_PREFIX);
+
+            if (previous == null || previous.isEmpty() || previous.get(0) == null) {
                 logger.warn("Invalid refresh token provided: {}", token);
                 return Optional.empty();
             }
-            
+
+            LocalDateTime issuedAt = toLocalDateTime(now);
+            RefreshToken rotated = new RefreshToken(newTokenId, Long.valueOf((String) previous.get(0)),
+                    (String) previous.get(1), (String) previous.get(2), issuedAt, issuedAt);
+            logger.debug("Rotated refresh token for user: {}", rotated.getUsername());
+            return Optional.of(rotated);
+
         } catch (Exception e) {
-            logger.error("Error validating refresh token: {}", token, e);
+            logger.error("Error rotating refresh token: {}", token, e);
             return Optional.empty();
         }
     }
@@ -81,9 +116,20 @@ public class RefreshTokenService {
      * Revoke a specific refresh token
      */
     public boolean revokeRefreshToken(String token) {
+        return revoke(token, List.of(tokenKey(token)));
+    }
+
+    /**
+     * Revoke a refresh token known to belong to {@code userId}, naming its session index up front
+     */
+    public boolean revokeRefreshToken(String token, Long userId) {
+        return revoke(token, List.of(tokenKey(token), sessionIndexKey(userId)));
+    }
+
+    private boolean revoke(String token, List<String> keys) {
         try {
-            if (refreshTokenRepository.existsById(token)) {
-                refreshTokenRepository.deleteById(token);
+            Long revoked = redisTemplate.execute(REVOKE_SCRIPT, keys, token, SESSION_INDEX_KEY_PREFIX);
+            if (revoked != null && revoked == 1L) {
                 logger.info("Revoked refresh token: {}", token);
                 return true;
             } else {
@@ -101,49 +147,121 @@ public class RefreshTokenService {
      */
     public void revokeAllUserTokens(Long userId) {
         try {
-            List<RefreshToken> userTokens = refreshTokenRepository.findByUserId(userId);
-            for (RefreshToken token : userTokens) {
-                refreshTokenRepository.deleteById(token.getToken());
-            }
-            logger.info("Revoked {} refresh tokens for user ID: {}", userTokens.size(), userId);
+            Long revoked = redisTemplate.execute(REVOKE_USER_SCRIPT, List.of(sessionIndexKey(userId)), TOKEN_KEY_PREFIX);
+            logger.info("Revoked {} refresh tokens for user ID: {}", revoked, userId);
         } catch (Exception e) {
             logger.error("Error revoking all tokens for user ID: {}", userId, e);
         }
     }
 
     /**
-     * Revoke all refresh tokens for a username
+     * One page of a user's active sessions, most recently used first
      */
-    public void revokeAllUserTokens(String username) {
-        try {
-            List<RefreshToken> userTokens = refreshTokenRepository.findByUsername(username);
-            for (RefreshToken token : userTokens) {
-                refreshTokenRepository.deleteById(token.getToken());
+    public SessionPage getUserActiveSessions(Long userId, int offset, int limit) {
+        String indexKey = sessionIndexKey(userId);
+        byte[] rawIndexKey = indexKey.getBytes(StandardCharsets.UTF_8);
+
+        List<Object> page = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.zSetCommands().zCard(rawIndexKey);
+            connection.zSetCommands().zRevRange(rawIndexKey, offset, offset + limit - 1L);
+            return null;
+        });
+        long total = page.get(0) != null ? (Long) page.get(0) : 0L;
+        @SuppressWarnings("unchecked")
+        List<String> tokens = page.get(1) != null ? new ArrayList<>((Collection<String>) page.get(1)) : List.of();
+        if (tokens.isEmpty()) {
+            return new SessionPage(List.of(), total);
+        }
+
+        // One round trip for all HGETALLs
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String token : tokens) {
+                connection.hashCommands().hGetAll(tokenKey(token).getBytes(StandardCharsets.UTF_8));
             }
-            logger.info("Revoked {} refresh tokens for username: {}", userTokens.size(), username);
-        } catch (Exception e) {
-            logger.error("Error revoking all tokens for username: {}", username, e);
+            return null;
+        });
+
+        List<RefreshToken> sessions = new ArrayList<>();
+        List<String> expired = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            Map<?, ?> fields = (Map<?, ?>) results.get(i);
+            if (fields != null && !fields.isEmpty()) {
+                sessions.add(toRefreshToken(tokens.get(i), fields));
+            } else {
+                expired.add(tokens.get(i));
+            }
+        }
+        if (!expired.isEmpty()) {
+            redisTemplate.opsForZSet().remove(indexKey, expired.toArray());
         }
+        return new SessionPage(sessions, total - expired.size());
     }
 
     /**
-     * Get all active sessions for a user
+     * Drops session index entries whose token has expired. Every token expires {@code ttl} after
+     * its last use, which is also its score, so this is a range delete per index.
      */
-    public List<RefreshToken> getUserActiveSessions(Long userId) {
-        return refreshTokenRepository.findByUserId(userId);
+    @Scheduled(fixedDelayString = "${auth.sessions.prune-interval:PT10M}", initialDelayString = "${auth.sessions.prune-interval:PT10M}")
+    public void pruneExpiredSessions() {
+        String cutoff = "(" + (System.currentTimeMillis() - refreshTokenExpiration);
+        byte[] min = "-inf".getBytes(StandardCharsets.UTF_8);
+        byte[] max = cutoff.getBytes(StandardCharsets.UTF_8);
+        ScanOptions options = ScanOptions.scanOptions().match(SESSION_INDEX_KEY_PREFIX + "*").count(PRUNE_BATCH_SIZE).build();
+
+        long indexes = 0;
+        long pruned = 0;
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            List<byte[]> batch = new ArrayList<>(PRUNE_BATCH_SIZE);
+            while (cursor.hasNext()) {
+                batch.add(cursor.next().getBytes(StandardCharsets.UTF_8));
+                if (batch.size() == PRUNE_BATCH_SIZE || !cursor.hasNext()) {
+                    pruned += pruneBatch(batch, min, max);
+                    indexes += batch.size();
+                    batch.clear();
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error pruning expired sessions", e);
+            return;
+        }
+        logger.debug("Pruned {} expired session entries across {} users", pruned, indexes);
     }
 
-    /**
-     * Get all active sessions for a username
-     */
-    public List<RefreshToken> getUserActiveSessions(String username) {
-        return refreshTokenRepository.findByUsername(username);
+    private long pruneBatch(List<byte[]> indexKeys, byte[] min, byte[] max) {
+        List<Object> removed = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (byte[] indexKey : indexKeys) {
+                connection.execute("ZREMRANGEBYSCORE", indexKey, min, max);
+            }
+            return null;
+        });
+        return removed.stream().mapToLong(count -> count instanceof Long value ? value : 0L).sum();
     }
 
-    /**
-     * Check if refresh token exists
-     */
-    public boolean isRefreshTokenValid(String token) {
-        return refreshTokenRepository.existsById(token);
+    public record SessionPage(List<RefreshToken> sessions, long total) {
+    }
+
+    private String ttlSeconds() {
+        return String.valueOf(refreshTokenExpiration / 1000L);
+    }
+
+    private static String tokenKey(String token) {
+        return TOKEN_KEY_PREFIX + token;
+    }
+
+    private static String sessionIndexKey(Long userId) {
+        return SESSION_INDEX_KEY_PREFIX + userId;
+    }
+
+    private static RefreshToken toRefreshToken(String token, Map<?, ?> fields) {
+        return new RefreshToken(token,
+                Long.valueOf((String) fields.get("userId")),
+                (String) fields.get("username"),
+                (String) fields.get("deviceInfo"),
+                toLocalDateTime(Long.parseLong((String) fields.get("createdAt"))),
+                toLocalDateTime(Long.parseLong((String) fields.get("lastUsedAt"))));
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
     }
-} 
\ No newline at end of file
+}
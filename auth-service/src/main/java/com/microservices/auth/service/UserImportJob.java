@@ -0,0 +1,123 @@
+package com.microservices.auth.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one bulk user import. Updated by the import thread and read by the progress
+ * endpoint, so counters are atomic and the error list is guarded by the job.
+ */
+public class UserImportJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    // Enough to spot a systematic problem without holding every bad row of a large file
+    private static final int MAX_ERRORS = 100;
+
+    private final String id;
+    private final String fileName;
+    private final UserImportReader.Format format;
+    private final String requestedBy;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong invalid = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final List<String> errors = new ArrayList<>();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String failureReason;
+
+    public UserImportJob(String id, String fileName, UserImportReader.Format format, String requestedBy) {
+        this.id = id;
+        this.fileName = fileName;
+        this.format = format;
+        this.requestedBy = requestedBy;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public UserImportReader.Format getFormat() {
+        return format;
+    }
+
+    void started() {
+        startedAt = LocalDateTime.now();
+        status = Status.RUNNING;
+    }
+
+    void completed() {
+        finishedAt = LocalDateTime.now();
+        status = Status.COMPLETED;
+    }
+
+    void aborted(String reason) {
+        failureReason = reason;
+        finishedAt = LocalDateTime.now();
+        status = Status.FAILED;
+    }
+
+    void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    void imported(int count) {
+        imported.addAndGet(count);
+    }
+
+    void duplicate(long lineNumber, String reason) {
+        duplicates.incrementAndGet();
+        error(lineNumber, reason);
+    }
+
+    void invalid(long lineNumber, String reason) {
+        invalid.incrementAndGet();
+        error(lineNumber, reason);
+    }
+
+    void failed(long lineNumber, String reason) {
+        failed.incrementAndGet();
+        error(lineNumber, reason);
+    }
+
+    private synchronized void error(long lineNumber, String reason) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add("line " + lineNumber + ": " + reason);
+        }
+    }
+
+    public String summary() {
+        return rowsRead.get() + " rows: " + imported.get() + " imported, " + duplicates.get() + " duplicates, "
+                + invalid.get() + " invalid, " + failed.get() + " failed";
+    }
+
+    public synchronized Map<String, Object> toMap() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("jobId", id);
+        response.put("status", status);
+        response.put("fileName", fileName);
+        response.put("format", format);
+        response.put("requestedBy", requestedBy);
+        response.put("submittedAt", submittedAt);
+        response.put("startedAt", startedAt);
+        response.put("finishedAt", finishedAt);
+        response.put("rowsRead", rowsRead.get());
+        response.put("imported", imported.get());
+        response.put("duplicates", duplicates.get());
+        response.put("invalid", invalid.get());
+        response.put("failed", failed.get());
+        response.put("failureReason", failureReason);
+        response.put("errors", List.copyOf(errors));
+        return response;
+    }
+}
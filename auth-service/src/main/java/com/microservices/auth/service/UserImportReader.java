@@ -0,0 +1,152 @@
+package com.microservices.auth.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.microservices.auth.dto.RegisterRequest;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads an import file one record at a time, so memory use does not grow with the file. Both
+ * formats hold one user per line: JSONL objects with the {@link RegisterRequest} fields, or CSV
+ * with a header row naming the columns ({@code username,email,password,firstName,lastName}, in
+ * any order). Quoted CSV fields may contain commas and doubled quotes but not line breaks.
+ */
+public class UserImportReader implements Closeable {
+
+    public enum Format { CSV, JSONL }
+
+    /** One parsed line: either {@code request} or {@code error} is set. */
+    public record Row(long lineNumber, RegisterRequest request, String error) {
+    }
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final ObjectReader jsonReader;
+    private Map<String, Integer> columns;
+    private long lineNumber;
+
+    public UserImportReader(BufferedReader reader, Format format, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.format = format;
+        this.jsonReader = objectMapper.readerFor(RegisterRequest.class);
+    }
+
+    /**
+     * Returns the next non-blank record, or null at the end of the file.
+     *
+     * @throws IllegalArgumentException if the CSV header lacks a required column
+     */
+    public Row next() {
+        try {
+            if (format == Format.CSV && columns == null) {
+                readHeader();
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!line.isBlank()) {
+                    return format == Format.CSV ? parseCsv(line) : parseJson(line);
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readHeader() throws IOException {
+        String header = reader.readLine();
+        lineNumber++;
+        if (header != null && header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        columns = new HashMap<>();
+        List<String> names = header != null ? splitCsv(header) : null;
+        if (names != null) {
+            for (int i = 0; i < names.size(); i++) {
+                // first_name and firstName both map to firstname
+                columns.put(names.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT), i);
+            }
+        }
+        for (String required : List.of("username", "email", "password")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header must include a '" + required + "' column");
+            }
+        }
+    }
+
+    private Row parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields == null) {
+            return new Row(lineNumber, null, "Unterminated quoted field");
+        }
+        RegisterRequest request = new RegisterRequest(field(fields, "username"), field(fields, "email"),
+                field(fields, "password"), field(fields, "firstname"), field(fields, "lastname"));
+        return new Row(lineNumber, request, null);
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    private Row parseJson(String line) {
+        try {
+            RegisterRequest request = jsonReader.readValue(line);
+            return request != null ? new Row(lineNumber, request, null) : new Row(lineNumber, null, "Expected a JSON object");
+        } catch (JsonProcessingException e) {
+            return new Row(lineNumber, null, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    // RFC 4180 fields on a single line; null if a quote is left open
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
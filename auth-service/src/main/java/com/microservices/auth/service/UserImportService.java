@@ -0,0 +1,341 @@
+package com.microservices.auth.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microservices.auth.dto.RegisterRequest;
+import com.microservices.auth.entity.Role;
+import com.microservices.auth.event.UserEvent;
+import com.microservices.auth.repository.RoleRepository;
+import com.microservices.auth.repository.UserBatchRepository;
+import com.microservices.auth.repository.UserBatchRepository.ExistingKeys;
+import com.microservices.auth.repository.UserBatchRepository.NewUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk user creation for onboarding. An uploaded file is imported in the background, one chunk
+ * of {@code batch-size} rows at a time:
+ * <ol>
+ *   <li>rows are read and validated as they stream in, and usernames or emails repeated within
+ *       the file are dropped;</li>
+ *   <li>one query finds which of the chunk's usernames and emails are already taken;</li>
+ *   <li>the remaining passwords are hashed in parallel on a dedicated pool;</li>
+ *   <li>the users, their roles and their USER_CREATED events are inserted with JDBC batches in
+ *       one transaction, and {@link OutboxRelay} delivers the events.</li>
+ * </ol>
+ * The hashing pool is separate from {@code PasswordHasher}'s, so an import neither sheds
+ * logins nor is shed by them; by default it takes half the cores. Jobs run one at a time, and
+ * their progress is kept in memory on the instance that runs them for {@code job-retention}.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    private final UserBatchRepository userBatchRepository;
+    private final RoleRepository roleRepository;
+    private final EventOutbox eventOutbox;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final ThreadPoolExecutor jobPool;
+    private final ExecutorService hashPool;
+    private final Cache<String, UserImportJob> jobs;
+
+    private final Counter importedRows;
+    private final Counter duplicateRows;
+    private final Counter invalidRows;
+    private final Counter failedRows;
+
+    public UserImportService(UserBatchRepository userBatchRepository, RoleRepository roleRepository,
+                             EventOutbox eventOutbox, PasswordEncoder passwordEncoder, Validator validator,
+                             ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${auth.user-import.batch-size:500}") int batchSize,
+                             @Value("${auth.user-import.hash-threads:0}") int hashThreads,
+                             @Value("${auth.user-import.max-queued-jobs:2}") int maxQueuedJobs,
+                             @Value("${auth.user-import.job-retention:PT24H}") Duration jobRetention) {
+        this.userBatchRepository = userBatchRepository;
+        this.roleRepository = roleRepository;
+        this.eventOutbox = eventOutbox;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+
+        CustomizableThreadFactory jobThreads = new CustomizableThreadFactory("user-import-");
+        jobThreads.setDaemon(true);
+        this.jobPool = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueuedJobs), jobThreads, new ThreadPoolExecutor.AbortPolicy());
+
+        // Leave the other half of the CPU to logins; the queue never holds more than one chunk
+        int hashPoolSize = hashThreads > 0 ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        CustomizableThreadFactory hashThreadFactory = new CustomizableThreadFactory("user-import-hash-");
+        hashThreadFactory.setDaemon(true);
+        this.hashPool = ExecutorServiceMetrics.monitor(meterRegistry,
+                new ThreadPoolExecutor(hashPoolSize, hashPoolSize, 0L, TimeUnit.MILLISECONDS,
+                        new LinkedBlockingQueue<>(), hashThreadFactory),
+                "user-import-hashing");
+
+        this.jobs = Caffeine.newBuilder()
+                .maximumSize(1_000)
+                .expireAfterWrite(jobRetention)
+                .build();
+
+        this.importedRows = rowCounter(meterRegistry, "imported");
+        this.duplicateRows = rowCounter(meterRegistry, "duplicate");
+        this.invalidRows = rowCounter(meterRegistry, "invalid");
+        this.failedRows = rowCounter(meterRegistry, "failed");
+    }
+
+    private static Counter rowCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("auth.user.import.rows")
+                .description("Rows processed by bulk user imports, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobPool.shutdownNow();
+        hashPool.shutdownNow();
+    }
+
+    /**
+     * Queues an import of {@code file}, which the job deletes when it finishes.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if too many imports are already queued
+     */
+    public UserImportJob submit(Path file, String fileName, UserImportReader.Format format, String requestedBy) {
+        UserImportJob job = new UserImportJob(UUID.randomUUID().toString(), fileName, format, requestedBy);
+        try {
+            jobPool.execute(() -> run(job, file));
+        } catch (RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+        jobs.put(job.getId(), job);
+        logger.info("Queued user import {} of {} ({}) for {}", job.getId(), fileName, format, requestedBy);
+        return job;
+    }
+
+    public Optional<UserImportJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.getIfPresent(jobId));
+    }
+
+    private void run(UserImportJob job, Path file) {
+        job.started();
+        long start = System.nanoTime();
+        try (UserImportReader reader = new UserImportReader(
+                Files.newBufferedReader(file, StandardCharsets.UTF_8), job.getFormat(), objectMapper)) {
+            Role role = roleRepository.findByName("USER")
+                    .orElseThrow(() -> new IllegalStateException("Default role not found"));
+
+            Set<String> seenUsernames = new HashSet<>();
+            Set<String> seenEmails = new HashSet<>();
+            List<UserImportReader.Row> chunk = new ArrayList<>(batchSize);
+            UserImportReader.Row row;
+            while ((row = reader.next()) != null) {
+                job.rowRead();
+                String problem = row.error() != null ? row.error() : validate(row.request());
+                if (problem != null) {
+                    job.invalid(row.lineNumber(), problem);
+                    invalidRows.increment();
+                    continue;
+                }
+
+                String username = row.request().getUsername().toLowerCase(Locale.ROOT);
+                String email = row.request().getEmail().toLowerCase(Locale.ROOT);
+                if (seenUsernames.contains(username) || seenEmails.contains(email)) {
+                    job.duplicate(row.lineNumber(), seenUsernames.contains(username)
+                            ? "Username appears earlier in the file" : "Email appears earlier in the file");
+                    duplicateRows.increment();
+                    continue;
+                }
+                seenUsernames.add(username);
+                seenEmails.add(email);
+
+                chunk.add(row);
+                if (chunk.size() == batchSize) {
+                    importChunk(job, chunk, role.getId());
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(job, chunk, role.getId());
+            }
+
+            job.completed();
+            logger.info("User import {} finished in {} s: {}", job.getId(),
+                    TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), job.summary());
+        } catch (Exception e) {
+            job.aborted(e.getMessage());
+            logger.error("User import {} failed", job.getId(), e);
+        } finally {
+            deleteQuietly(file);
+        }
+    }
+
+    private String validate(RegisterRequest request) {
+        Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private record PreparedUser(long lineNumber, NewUser user) {
+    }
+
+    private void importChunk(UserImportJob job, List<UserImportReader.Row> rows, Long roleId) throws InterruptedException {
+        List<UserImportReader.Row> fresh = withoutExisting(job, rows);
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        List<Future<String>> hashes = new ArrayList<>(fresh.size());
+        for (UserImportReader.Row row : fresh) {
+            String password = row.request().getPassword();
+            hashes.add(hashPool.submit(() -> passwordEncoder.encode(password)));
+        }
+        List<PreparedUser> prepared = new ArrayList<>(fresh.size());
+        for (int i = 0; i < fresh.size(); i++) {
+            UserImportReader.Row row = fresh.get(i);
+            try {
+                RegisterRequest request = row.request();
+                prepared.add(new PreparedUser(row.lineNumber(), new NewUser(request.getUsername(), request.getEmail(),
+                        hashes.get(i).get(), request.getFirstName(), request.getLastName())));
+            } catch (ExecutionException e) {
+                job.failed(row.lineNumber(), "Password hashing failed");
+                failedRows.increment();
+            }
+        }
+
+        try {
+            insert(job, prepared, roleId);
+        } catch (DuplicateKeyException e) {
+            // Someone registered one of these names between the check and the insert; check again
+            Set<Long> stillFresh = withoutExisting(job, fresh).stream()
+                    .map(UserImportReader.Row::lineNumber)
+                    .collect(Collectors.toSet());
+            List<PreparedUser> retry = prepared.stream()
+                    .filter(user -> stillFresh.contains(user.lineNumber()))
+                    .toList();
+            try {
+                insert(job, retry, roleId);
+            } catch (DataAccessException retryFailure) {
+                failAll(job, retry, retryFailure);
+            }
+        } catch (DataAccessException e) {
+            failAll(job, prepared, e);
+        }
+    }
+
+    /** Drops rows whose username or email is already taken, with one query for the whole chunk. */
+    private List<UserImportReader.Row> withoutExisting(UserImportJob job, List<UserImportReader.Row> rows) {
+        List<String> usernames = new ArrayList<>(rows.size());
+        List<String> emails = new ArrayList<>(rows.size());
+        for (UserImportReader.Row row : rows) {
+            usernames.add(row.request().getUsername());
+            emails.add(row.request().getEmail());
+        }
+        ExistingKeys existing = userBatchRepository.findExisting(usernames, emails);
+
+        List<UserImportReader.Row> fresh = new ArrayList<>(rows.size());
+        for (UserImportReader.Row row : rows) {
+            if (existing.usernames().contains(row.request().getUsername().toLowerCase(Locale.ROOT))) {
+                job.duplicate(row.lineNumber(), "Username is already taken");
+                duplicateRows.increment();
+            } else if (existing.emails().contains(row.request().getEmail().toLowerCase(Locale.ROOT))) {
+                job.duplicate(row.lineNumber(), "Email is already in use");
+                duplicateRows.increment();
+            } else {
+                fresh.add(row);
+            }
+        }
+        return fresh;
+    }
+
+    private void insert(UserImportJob job, List<PreparedUser> prepared, Long roleId) {
+        if (prepared.isEmpty()) {
+            return;
+        }
+        List<NewUser> users = prepared.stream().map(PreparedUser::user).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> ids = userBatchRepository.insertAll(users, roleId);
+            List<UserEvent> events = new ArrayList<>(users.size());
+            for (int i = 0; i < users.size(); i++) {
+                NewUser user = users.get(i);
+                events.add(new UserEvent("USER_CREATED", ids.get(i), user.username(), user.email(),
+                        fullName(user.firstName(), user.lastName())));
+            }
+            eventOutbox.enqueueUserEvents(events);
+        });
+        job.imported(users.size());
+        importedRows.increment(users.size());
+    }
+
+    private void failAll(UserImportJob job, List<PreparedUser> prepared, DataAccessException e) {
+        logger.warn("User import {}: could not insert {} users: {}", job.getId(), prepared.size(), e.getMostSpecificCause().toString());
+        for (PreparedUser user : prepared) {
+            job.failed(user.lineNumber(), "Could not be saved");
+        }
+        failedRows.increment(prepared.size());
+    }
+
+    private static String fullName(String firstName, String lastName) {
+        String fullName = (firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "");
+        return fullName.trim();
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete import file {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+-- Stores a refresh token and adds it to its user's session index, dropping index entries for
+-- tokens that have expired since.
+-- KEYS[1] token hash, KEYS[2] user session index (sorted set scored by last use, epoch ms)
+-- ARGV[1] token, ARGV[2] userId, ARGV[3] username, ARGV[4] deviceInfo, ARGV[5] now (epoch ms), ARGV[6] ttl (s)
+redis.call('HSET', KEYS[1], 'userId', ARGV[2], 'username', ARGV[3], 'deviceInfo', ARGV[4],
+    'createdAt', ARGV[5], 'lastUsedAt', ARGV[5])
+redis.call('EXPIRE', KEYS[1], ARGV[6])
+redis.call('ZREMRANGEBYSCORE', KEYS[2], '-inf', '(' .. (tonumber(ARGV[5]) - tonumber(ARGV[6]) * 1000))
+redis.call('ZADD', KEYS[2], ARGV[5], ARGV[1])
+redis.call('EXPIRE', KEYS[2], ARGV[6])
+return 1
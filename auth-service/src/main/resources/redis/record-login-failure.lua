@@ -0,0 +1,11 @@
+-- Counts a failed login in the shared fixed window and reads the previous window, so each
+-- replica can compute the same sliding-window estimate.
+-- KEYS[1] current window counter, KEYS[2] previous window counter
+-- ARGV[1] counter TTL in milliseconds (two windows)
+-- Returns {current count, previous count}.
+local current = redis.call('INCR', KEYS[1])
+if current == 1 then
+    redis.call('PEXPIRE', KEYS[1], ARGV[1])
+end
+local previous = tonumber(redis.call('GET', KEYS[2]) or '0')
+return {current, previous}
@@ -0,0 +1,15 @@
+-- Deletes a refresh token and removes it from its user's session index.
+-- KEYS[1] token hash, KEYS[2] user session index (optional, when the caller knows the user)
+-- ARGV[1] token, ARGV[2] session index key prefix
+-- Returns 1 if the token existed, 0 otherwise.
+--
+-- Without KEYS[2] the index key is derived from the userId stored in the token hash, i.e. it
+-- is not declared up front. That needs a single Redis node (standalone or Sentinel); on Redis
+-- Cluster the token and index keys live in different slots anyway.
+local userId = redis.call('HGET', KEYS[1], 'userId')
+if not userId then
+    return 0
+end
+redis.call('DEL', KEYS[1])
+redis.call('ZREM', KEYS[2] or (ARGV[2] .. userId), ARGV[1])
+return 1
@@ -0,0 +1,19 @@
+-- Deletes every refresh token of a user, and the session index itself, in one call.
+-- KEYS[1] user session index
+-- ARGV[1] token hash key prefix
+-- Returns the number of tokens in the index.
+--
+-- The token hash keys come from the index, not KEYS, so this needs a single Redis node
+-- (standalone or Sentinel), like the rotate and revoke scripts.
+local tokens = redis.call('ZRANGE', KEYS[1], 0, -1)
+local batch = {}
+for i, token in ipairs(tokens) do
+    batch[#batch + 1] = ARGV[1] .. token
+    -- UNLINK frees memory off the main thread; batches keep unpack() within Lua's stack limit
+    if #batch == 500 or i == #tokens then
+        redis.call('UNLINK', unpack(batch))
+        batch = {}
+    end
+end
+redis.call('DEL', KEYS[1])
+return #tokens
@@ -0,0 +1,23 @@
+-- Replaces a refresh token with a new one for the same user and device. Runs atomically, so of
+-- two concurrent rotations of the same token exactly one succeeds.
+-- KEYS[1] old token hash, KEYS[2] new token hash
+-- ARGV[1] old token, ARGV[2] new token, ARGV[3] now (epoch ms), ARGV[4] ttl (s), ARGV[5] session index key prefix
+-- Returns {userId, username, deviceInfo}, or nil if the old token does not exist (revoked or expired).
+--
+-- The caller only has the token, so the session index key is derived here from the userId in
+-- the old token's hash rather than declared in KEYS. That needs a single Redis node (standalone
+-- or Sentinel); on Redis Cluster the token and index keys live in different slots anyway.
+local fields = redis.call('HMGET', KEYS[1], 'userId', 'username', 'deviceInfo')
+if not fields[1] then
+    return nil
+end
+local userId, username, deviceInfo = fields[1], fields[2] or '', fields[3] or ''
+local index = ARGV[5] .. userId
+redis.call('DEL', KEYS[1])
+redis.call('ZREM', index, ARGV[1])
+redis.call('HSET', KEYS[2], 'userId', userId, 'username', username, 'deviceInfo', deviceInfo,
+    'createdAt', ARGV[3], 'lastUsedAt', ARGV[3])
+redis.call('EXPIRE', KEYS[2], ARGV[4])
+redis.call('ZADD', index, ARGV[3], ARGV[2])
+redis.call('EXPIRE', index, ARGV[4])
+return {userId, username, deviceInfo}
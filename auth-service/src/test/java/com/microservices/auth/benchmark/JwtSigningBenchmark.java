@@ -0,0 +1,140 @@
+package com.microservices.auth.benchmark;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign and verify throughput of access tokens per algorithm, with the same claims
+ * {@code JwtUtils} puts in a real token. HS256 and ES256 are the algorithms auth-service
+ * supports; RS256 is included for comparison. jjwt 0.11 has no EdDSA support, so Ed25519 is
+ * measured as a raw JCA signature over the same signing input, which is the cost a JOSE
+ * library would add on top of its (small) parsing overhead.
+ *
+ * <p>Run with:
+ * <pre>
+ * mvn -q test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main JwtSigningBenchmark"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtSigningBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Jose {
+
+        @Param({"HS256", "ES256", "RS256"})
+        public String algorithm;
+
+        SignatureAlgorithm signatureAlgorithm;
+        Key signingKey;
+        JwtParser parser;
+        String token;
+
+        @Setup
+        public void setUp() {
+            signatureAlgorithm = SignatureAlgorithm.forName(algorithm);
+            Key verificationKey;
+            if (signatureAlgorithm == SignatureAlgorithm.HS256) {
+                signingKey = Keys.hmacShaKeyFor("mySecretKey123456789012345678901234567890".getBytes(StandardCharsets.UTF_8));
+                verificationKey = signingKey;
+            } else {
+                KeyPair keyPair = Keys.keyPairFor(signatureAlgorithm);
+                signingKey = keyPair.getPrivate();
+                verificationKey = keyPair.getPublic();
+            }
+            parser = Jwts.parserBuilder().setSigningKey(verificationKey).build();
+            token = accessToken(signingKey, signatureAlgorithm);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Ed25519 {
+
+        KeyPair keyPair;
+        byte[] signingInput;
+        byte[] signature;
+
+        @Setup
+        public void setUp() throws GeneralSecurityException {
+            keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+            Key hmacKey = Keys.hmacShaKeyFor("mySecretKey123456789012345678901234567890".getBytes(StandardCharsets.UTF_8));
+            String token = accessToken(hmacKey, SignatureAlgorithm.HS256);
+            signingInput = token.substring(0, token.lastIndexOf('.')).getBytes(StandardCharsets.US_ASCII);
+            signature = sign(this);
+        }
+    }
+
+    @Benchmark
+    public String sign(Jose state) {
+        return accessToken(state.signingKey, state.signatureAlgorithm);
+    }
+
+    @Benchmark
+    public Object verify(Jose state) {
+        return state.parser.parseClaimsJws(state.token).getBody();
+    }
+
+    @Benchmark
+    public byte[] ed25519Sign(Ed25519 state) throws GeneralSecurityException {
+        return sign(state);
+    }
+
+    @Benchmark
+    public boolean ed25519Verify(Ed25519 state) throws GeneralSecurityException {
+        Signature signature = Signature.getInstance("Ed25519");
+        signature.initVerify(state.keyPair.getPublic());
+        signature.update(state.signingInput);
+        return signature.verify(state.signature);
+    }
+
+    private static byte[] sign(Ed25519 state) throws GeneralSecurityException {
+        Signature signature = Signature.getInstance("Ed25519");
+        signature.initSign(state.keyPair.getPrivate());
+        signature.update(state.signingInput);
+        return signature.sign();
+    }
+
+    // Same claims as JwtUtils.generateAccessToken
+    private static String accessToken(Key signingKey, SignatureAlgorithm signatureAlgorithm) {
+        return Jwts.builder()
+                .setHeaderParam("kid", "benchmark")
+                .setId(UUID.randomUUID().toString())
+                .setSubject("john.doe")
+                .claim("userId", 42L)
+                .claim("roles", Set.of("USER", "MANAGER"))
+                .claim("email", "john@example.com")
+                .claim("tokenType", "access")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 900_000))
+                .signWith(signingKey, signatureAlgorithm)
+                .compact();
+    }
+}
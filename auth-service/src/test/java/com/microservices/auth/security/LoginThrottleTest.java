@@ -0,0 +1,180 @@
+package com.microservices.auth.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LoginThrottleTest {
+
+    private static final long WINDOW = 1000;
+
+    @Test
+    void failuresInOneWindowAddUp() {
+        LoginThrottle.FailureWindow window = new LoginThrottle.FailureWindow();
+
+        window.increment(5000, WINDOW);
+        window.increment(5100, WINDOW);
+
+        assertThat(window.increment(5200, WINDOW)).isCloseTo(3.0, within(1e-9));
+    }
+
+    @Test
+    void previousWindowIsWeightedByWhatIsLeftOfIt() {
+        LoginThrottle.FailureWindow window = new LoginThrottle.FailureWindow();
+        for (int i = 0; i < 4; i++) {
+            window.increment(5000, WINDOW);
+        }
+
+        // A quarter into the next window: 1 new failure plus three quarters of the previous 4
+        assertThat(window.increment(6250, WINDOW)).isCloseTo(4.0, within(1e-9));
+    }
+
+    @Test
+    void failuresOlderThanTheWindowBeforeAreForgotten() {
+        LoginThrottle.FailureWindow window = new LoginThrottle.FailureWindow();
+        for (int i = 0; i < 4; i++) {
+            window.increment(5000, WINDOW);
+        }
+
+        assertThat(window.increment(7000, WINDOW)).isCloseTo(1.0, within(1e-9));
+    }
+
+    @Test
+    void countSaturatesInsteadOfOverflowing() {
+        LoginThrottle.FailureWindow window = new LoginThrottle.FailureWindow();
+        double estimate = 0;
+        for (int i = 0; i < 70_000; i++) {
+            estimate = window.increment(5000, WINDOW);
+        }
+
+        assertThat(estimate).isEqualTo(65535.0);
+        // The saturated count must not spill into the window index
+        assertThat(window.increment(6000, WINDOW)).isCloseTo(1.0 + 65535.0, within(1e-9));
+    }
+
+    @Test
+    void concurrentFailuresAreAllCounted() throws InterruptedException {
+        LoginThrottle.FailureWindow window = new LoginThrottle.FailureWindow();
+        int threads = 8;
+        int perThread = 5000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    window.increment(5000, 60_000);
+                }
+                done.countDown();
+            });
+        }
+        assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+
+        assertThat(window.increment(5000, 60_000)).isCloseTo(threads * perThread + 1.0, within(1e-9));
+    }
+
+    @Test
+    void usernameIsLockedAtItsThresholdRegardlessOfCase() {
+        LoginThrottle throttle = throttle(5, 100);
+        for (int i = 0; i < 4; i++) {
+            throttle.recordFailure("Alice", "10.0.0.1");
+        }
+        assertThatCode(() -> throttle.check("alice", "10.0.0.2")).doesNotThrowAnyException();
+
+        throttle.recordFailure("ALICE", "10.0.0.1");
+
+        assertThatThrownBy(() -> throttle.check("alice", "10.0.0.3"))
+            .isInstanceOf(LoginThrottledException.class)
+            .satisfies(e -> assertThat(((LoginThrottledException) e).getRetryAfter())
+                .isBetween(Duration.ofMillis(1), Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void backoffDoublesWithEachFurtherFailure() {
+        LoginThrottle throttle = throttle(2, 100);
+        for (int i = 0; i < 4; i++) {
+            throttle.recordFailure("bob", null);
+        }
+
+        // Threshold 2, four failures: 1s doubled twice
+        assertThatThrownBy(() -> throttle.check("bob", null))
+            .isInstanceOf(LoginThrottledException.class)
+            .satisfies(e -> assertThat(((LoginThrottledException) e).getRetryAfter())
+                .isBetween(Duration.ofMillis(3000), Duration.ofSeconds(4)));
+    }
+
+    @Test
+    void addressIsLockedAcrossUsernames() {
+        LoginThrottle throttle = throttle(100, 3);
+        throttle.recordFailure("a", "10.0.0.9");
+        throttle.recordFailure("b", "10.0.0.9");
+        throttle.recordFailure("c", "10.0.0.9");
+
+        assertThatThrownBy(() -> throttle.check("d", "10.0.0.9")).isInstanceOf(LoginThrottledException.class);
+        assertThatCode(() -> throttle.check("d", "10.0.0.10")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void successClearsTheUsernameButNotTheAddress() {
+        LoginThrottle throttle = throttle(2, 2);
+        throttle.recordFailure("carol", "10.0.0.5");
+        throttle.recordFailure("carol", "10.0.0.5");
+
+        throttle.recordSuccess("Carol");
+
+        assertThatCode(() -> throttle.check("carol", "10.0.0.6")).doesNotThrowAnyException();
+        assertThatThrownBy(() -> throttle.check("dave", "10.0.0.5")).isInstanceOf(LoginThrottledException.class);
+    }
+
+    @Test
+    void redisErrorsFallBackToLocalCounting() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        RedisConnectionFailureException down = new RedisConnectionFailureException("Redis is down");
+        when(redisTemplate.opsForValue()).thenThrow(down);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any())).thenThrow(down);
+        when(redisTemplate.unlink(anyCollection())).thenThrow(down);
+        LoginThrottle throttle = new LoginThrottle(redisTemplate, new SimpleMeterRegistry(), true, true,
+            Duration.ofMinutes(15), 2, 100, Duration.ofSeconds(1), Duration.ofMinutes(15), 1000);
+
+        assertThatCode(() -> throttle.check("erin", "10.0.0.7")).doesNotThrowAnyException();
+        throttle.recordFailure("erin", "10.0.0.7");
+        throttle.recordFailure("erin", "10.0.0.7");
+
+        assertThatThrownBy(() -> throttle.check("erin", "10.0.0.7")).isInstanceOf(LoginThrottledException.class);
+        assertThatCode(() -> throttle.recordSuccess("erin")).doesNotThrowAnyException();
+        assertThatCode(() -> throttle.check("erin", "10.0.0.8")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void disabledThrottleNeverLocks() {
+        LoginThrottle throttle = new LoginThrottle(null, new SimpleMeterRegistry(), false, false,
+            Duration.ofMinutes(15), 1, 1, Duration.ofSeconds(1), Duration.ofMinutes(15), 1000);
+        throttle.recordFailure("frank", "10.0.0.1");
+
+        assertThatCode(() -> throttle.check("frank", "10.0.0.1")).doesNotThrowAnyException();
+    }
+
+    private static LoginThrottle throttle(int usernameMaxFailures, int ipMaxFailures) {
+        return new LoginThrottle(mock(StringRedisTemplate.class), new SimpleMeterRegistry(), true, false,
+            Duration.ofMinutes(15), usernameMaxFailures, ipMaxFailures, Duration.ofSeconds(1), Duration.ofMinutes(15),
+            1000);
+    }
+}
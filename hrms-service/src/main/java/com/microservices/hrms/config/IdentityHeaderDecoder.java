@@ -0,0 +1,93 @@
+package com.microservices.hrms.config;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Verifies and decodes the signed {@value #HEADER} header set by the API gateway. Mirrors
+ * {@code IdentityHeaderEncoder} in api-gateway, which documents the wire format; both sides
+ * must share the same secret.
+ */
+public class IdentityHeaderDecoder {
+
+    public static final String HEADER = "X-User-Identity";
+
+    private static final byte VERSION = 1;
+    private static final int MAC_LENGTH = 16;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    private final ThreadLocal<Mac> mac;
+
+    public IdentityHeaderDecoder(String secret) {
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(MAC_ALGORITHM);
+                instance.init(key);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialise " + MAC_ALGORITHM, e);
+            }
+        });
+    }
+
+    /**
+     * @return the identity, or {@code null} if the header is malformed, forged or expired
+     */
+    public Identity decode(String header) {
+        int separator = header.indexOf('.');
+        if (separator < 0) {
+            return null;
+        }
+
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = Base64.getUrlDecoder().decode(header.substring(0, separator));
+            signature = Base64.getUrlDecoder().decode(header.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        byte[] expected = Arrays.copyOf(mac.get().doFinal(payload), MAC_LENGTH);
+        if (!MessageDigest.isEqual(expected, signature)) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            if (in.readByte() != VERSION) {
+                return null;
+            }
+            Instant expiresAt = Instant.ofEpochSecond(in.readLong());
+            if (!expiresAt.isAfter(Instant.now())) {
+                return null;
+            }
+            long userId = in.readLong();
+            String username = in.readUTF();
+            String email = in.readUTF();
+            int roleCount = in.readUnsignedByte();
+            List<String> roles = new ArrayList<>(roleCount);
+            for (int i = 0; i < roleCount; i++) {
+                roles.add(in.readUTF());
+            }
+            return new Identity(userId >= 0 ? userId : null, username, email.isEmpty() ? null : email,
+                List.copyOf(roles), expiresAt);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public record Identity(Long userId, String username, String email, List<String> roles, Instant expiresAt) {
+    }
+}
@@ -4,6 +4,9 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -11,51 +14,65 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
+    private final IdentityHeaderDecoder identityDecoder;
+    private final RoleSetCache roleSetCache = new RoleSetCache(JwtAuthenticationFilter::toAuthorities);
+
+    // The secret must match gateway.identity.secret in api-gateway
+    public JwtAuthenticationFilter(
+            @Value("${identity.secret:${jwt.secret:mySecretKey123456789012345678901234567890}}") String identitySecret) {
+        this.identityDecoder = new IdentityHeaderDecoder(identitySecret);
+    }
+
     @Override
-    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
                                   FilterChain filterChain) throws ServletException, IOException {
-        
-        // Extract user information from headers set by API Gateway
-        String userId = request.getHeader("X-User-Id");
-        String username = request.getHeader("X-Username");
-        String userRoles = request.getHeader("X-User-Roles");
-        String userEmail = request.getHeader("X-User-Email");
-        
-        if (userId != null && username != null) {
-            // Parse roles
-            List<SimpleGrantedAuthority> authorities = Arrays.stream(userRoles.split(","))
-                    .map(role -> new SimpleGrantedAuthority("ROLE_" + role.trim().toUpperCase()))
-                    .collect(Collectors.toList());
-            
-            // Create authentication token
-            UsernamePasswordAuthenticationToken authentication = 
-                new UsernamePasswordAuthenticationToken(username, null, authorities);
-            
-            // Add user details to authentication
-            UserPrincipal userPrincipal = UserPrincipal.builder()
-                    .userId(Long.parseLong(userId))
-                    .username(username)
-                    .email(userEmail)
-                    .roles(userRoles)
-                    .build();
-            
-            authentication.setDetails(userPrincipal);
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        // Extract user information from the signed identity header set by API Gateway
+        String header = request.getHeader(IdentityHeaderDecoder.HEADER);
+
+        if (header != null) {
+            IdentityHeaderDecoder.Identity identity = identityDecoder.decode(header);
+            if (identity != null && identity.userId() != null) {
+                RoleSetCache.RoleSet roleSet = roleSetCache.get(identity.roles());
+
+                // Create authentication token
+                UsernamePasswordAuthenticationToken authentication =
+                    new UsernamePasswordAuthenticationToken(identity.username(), null, roleSet.authorities());
+
+                // Add user details to authentication
+                UserPrincipal userPrincipal = UserPrincipal.builder()
+                        .userId(identity.userId())
+                        .username(identity.username())
+                        .email(identity.email())
+                        .roles(roleSet.roles())
+                        .build();
+
+                authentication.setDetails(userPrincipal);
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            } else {
+                log.debug("Rejected invalid or expired {} header for {}", IdentityHeaderDecoder.HEADER, request.getRequestURI());
+            }
         }
-        
+
         filterChain.doFilter(request, response);
     }
-    
+
+    private static List<SimpleGrantedAuthority> toAuthorities(List<String> roles) {
+        return roles.stream()
+                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.trim().toUpperCase()))
+                .toList();
+    }
+
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
         String path = request.getRequestURI();
         return path.startsWith("/actuator/") || path.equals("/api/hrms/health");
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,44 @@
+package com.microservices.hrms.config;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Authorities for each distinct role list carried by the {@value IdentityHeaderDecoder#HEADER}
+ * header. Distinct role combinations are few, so each is mapped once and shared; the cache is
+ * bounded in case a caller sends many. Kept identical in hrms-service and ticket-service, which
+ * differ only in the mapping they pass in.
+ */
+public class RoleSetCache {
+
+    private static final int MAX_CACHED_ROLE_SETS = 256;
+
+    private final Function<List<String>, List<SimpleGrantedAuthority>> toAuthorities;
+    private final ConcurrentMap<List<String>, RoleSet> roleSets = new ConcurrentHashMap<>();
+
+    public RoleSetCache(Function<List<String>, List<SimpleGrantedAuthority>> toAuthorities) {
+        this.toAuthorities = toAuthorities;
+    }
+
+    public RoleSet get(List<String> roles) {
+        RoleSet cached = roleSets.get(roles);
+        if (cached != null) {
+            return cached;
+        }
+        RoleSet roleSet = new RoleSet(String.join(",", roles), toAuthorities.apply(roles));
+        if (roleSets.size() < MAX_CACHED_ROLE_SETS) {
+            roleSets.putIfAbsent(roles, roleSet);
+        }
+        return roleSet;
+    }
+
+    /**
+     * Comma-joined roles as sent by the gateway, plus the matching authorities.
+     */
+    public record RoleSet(String roles, List<SimpleGrantedAuthority> authorities) {
+    }
+}
@@ -1,5 +1,7 @@
 package com.microservices.hrms.controller;
 
+import com.microservices.hrms.config.UserPrincipal;
+import com.microservices.hrms.util.SecurityUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 import jakarta.servlet.http.HttpServletRequest;
@@ -28,11 +30,12 @@ public class HrmsController {
         response.put("service", "HRMS Service");
         response.put("allHeaders", headers);
         
-        // Specifically highlight the user headers from API Gateway
-        Map<String, String> userHeaders = new HashMap<>();
-        userHeaders.put("X-User-Id", request.getHeader("X-User-Id"));
-        userHeaders.put("X-Username", request.getHeader("X-Username"));
-        userHeaders.put("X-User-Roles", request.getHeader("X-User-Roles"));
+        // Specifically highlight the user decoded from the API Gateway identity header
+        UserPrincipal user = SecurityUtils.getCurrentUser();
+        Map<String, Object> userHeaders = new HashMap<>();
+        userHeaders.put("userId", user != null ? user.getUserId() : null);
+        userHeaders.put("username", user != null ? user.getUsername() : null);
+        userHeaders.put("roles", user != null ? user.getRoles() : null);
         
         response.put("userHeadersFromGateway", userHeaders);
         
@@ -40,10 +43,10 @@ public class HrmsController {
     }
 
     @GetMapping("/profile")
-    public ResponseEntity<Map<String, Object>> getUserProfile(
-            @RequestHeader(value = "X-User-Id", required = false) String userId,
-            @RequestHeader(value = "X-Username", required = false) String username,
-            @RequestHeader(value = "X-User-Roles", required = false) String roles) {
+    public ResponseEntity<Map<String, Object>> getUserProfile() {
+        Long userId = SecurityUtils.getCurrentUserId();
+        String username = SecurityUtils.getCurrentUsername();
+        String roles = SecurityUtils.getCurrentUserRoles();
         
         Map<String, Object> response = new HashMap<>();
         response.put("message", "User profile from HRMS Service");
@@ -56,10 +59,9 @@ public class HrmsController {
     }
 
     @GetMapping("/employees")
-    public ResponseEntity<Map<String, Object>> getEmployees(
-            @RequestHeader(value = "X-User-Id", required = false) String userId,
-            @RequestHeader(value = "X-Username", required = false) String username,
-            @RequestHeader(value = "X-User-Roles", required = false) String roles) {
+    public ResponseEntity<Map<String, Object>> getEmployees() {
+        String username = SecurityUtils.getCurrentUsername();
+        String roles = SecurityUtils.getCurrentUserRoles();
         
         Map<String, Object> response = new HashMap<>();
         
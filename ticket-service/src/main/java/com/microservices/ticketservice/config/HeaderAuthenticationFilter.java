@@ -4,58 +4,56 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class HeaderAuthenticationFilter extends OncePerRequestFilter {
 
-    @Override
-    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
-            throws ServletException, IOException {
+    private static final Logger log = LoggerFactory.getLogger(HeaderAuthenticationFilter.class);
 
-        String userId = request.getHeader("X-User-Id");
-        String username = request.getHeader("X-Username");
-        String userEmail = request.getHeader("X-User-Email");
-        String userRoles = request.getHeader("X-User-Roles");
+    private final IdentityHeaderDecoder identityDecoder;
+    private final RoleSetCache roleSetCache = new RoleSetCache(HeaderAuthenticationFilter::parseRoles);
 
-        // Add debug logging
-        System.out.println("HeaderAuthenticationFilter called for: " + request.getRequestURI());
-        System.out.println("X-User-Id: " + userId);
-        System.out.println("X-Username: " + username);
-        System.out.println("X-User-Email: " + userEmail);
-        System.out.println("X-User-Roles: " + userRoles);
+    public HeaderAuthenticationFilter(IdentityHeaderDecoder identityDecoder) {
+        this.identityDecoder = identityDecoder;
+    }
 
-        if (userId != null && username != null) {
-            List<SimpleGrantedAuthority> authorities = parseRoles(userRoles);
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
 
-            // Create a custom authentication token that includes user info
-            UserAuthentication auth = new UserAuthentication(username, authorities, userId, userEmail);
-            SecurityContextHolder.getContext().setAuthentication(auth);
-            System.out.println("Authentication set for user: " + username + " (ID: " + userId + ")");
-        } else {
-            System.out.println("No authentication headers found - userId: " + userId + ", username: " + username);
+        String header = request.getHeader(IdentityHeaderDecoder.HEADER);
+        if (header != null) {
+            IdentityHeaderDecoder.Identity identity = identityDecoder.decode(header);
+            if (identity != null && identity.userId() != null) {
+                UserAuthentication auth = new UserAuthentication(identity.username(),
+                        roleSetCache.get(identity.roles()).authorities(), identity.userId().toString(), identity.email());
+                SecurityContextHolder.getContext().setAuthentication(auth);
+            } else {
+                log.debug("Rejected invalid or expired {} header for {}", IdentityHeaderDecoder.HEADER, request.getRequestURI());
+            }
         }
 
         filterChain.doFilter(request, response);
     }
 
-    private List<SimpleGrantedAuthority> parseRoles(String roles) {
-        if (roles == null || roles.isEmpty()) {
+    private static List<SimpleGrantedAuthority> parseRoles(List<String> roles) {
+        if (roles.isEmpty()) {
             return List.of(new SimpleGrantedAuthority("ROLE_USER"));
         }
         
-        return Arrays.stream(roles.split(","))
+        return roles.stream()
                 .map(String::trim)
                 .map(role -> role.startsWith("ROLE_") ? role : "ROLE_" + role)
                 .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
+                .toList();
     }
 
     // Custom authentication class to hold user information
@@ -1,5 +1,6 @@
 package com.microservices.ticketservice.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -12,9 +13,13 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @EnableWebSecurity
 public class SecurityConfig {
 
+    // Must match gateway.identity.secret in api-gateway
+    @Value("${identity.secret:${jwt.secret:mySecretKey123456789012345678901234567890}}")
+    private String identitySecret;
+
     @Bean
     public HeaderAuthenticationFilter headerAuthenticationFilter() {
-        return new HeaderAuthenticationFilter();
+        return new HeaderAuthenticationFilter(new IdentityHeaderDecoder(identitySecret));
     }
 
     @Bean